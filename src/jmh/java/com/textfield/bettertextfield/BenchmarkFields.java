@@ -0,0 +1,60 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.gui.FontRenderer;
+import net.minecraft.client.gui.GuiTextFieldOrig;
+
+import java.lang.reflect.Field;
+
+/**
+ * 成对比较的文本框：关闭背景、已获得焦点、光标在末尾，最大长度留有输入的余量。
+ * 原版绘制背景与光标竖线需要 GL，原版 setFocused 需要游戏实例，这里都避开。
+ */
+final class BenchmarkFields {
+    /// 关闭背景时的可见宽度
+    static final int WIDTH = 200;
+    private static final int ROOM = 64;
+    private static final Field IS_FOCUSED;
+
+    static {
+        try {
+            IS_FOCUSED = GuiTextFieldOrig.class.getDeclaredField("isFocused");
+            IS_FOCUSED.setAccessible(true);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BenchmarkFields() {
+    }
+
+    /**
+     * 字体必须是 FontRenderer 本身，否则没有宽度索引，绘制与点击都交给原版。
+     */
+    static PatchedTextField patched(FontRenderer fontRenderer, String text) {
+        PatchedTextField field = new PatchedTextField(0, fontRenderer, 0, 0, WIDTH, 20);
+        field.setEnableBackgroundDrawing(false);
+        field.setMaxStringLength(text.length() + ROOM);
+        field.setText(text);
+        field.setCanLoseFocus(false);
+        field.setFocused(true);
+        return field;
+    }
+
+    static GuiTextFieldOrig vanilla(FontRenderer fontRenderer, String text) {
+        GuiTextFieldOrig field = new GuiTextFieldOrig(0, fontRenderer, 0, 0, WIDTH, 20);
+        field.setEnableBackgroundDrawing(false);
+        field.setMaxStringLength(text.length() + ROOM);
+        field.setText(text);
+        field.setCanLoseFocus(false);
+        try {
+            IS_FOCUSED.setBoolean(field, true);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        // 停在光标熄灭的阶段
+        for (int i = 0; i < 6; i++) {
+            field.updateCursorCounter();
+        }
+        return field;
+    }
+}
@@ -0,0 +1,24 @@
+package com.textfield.bettertextfield;
+
+import java.util.Random;
+
+/**
+ * 基准测试用的文本：由小写字母组成、以单个空格分隔的单词。
+ */
+final class BenchmarkTexts {
+    private BenchmarkTexts() {
+    }
+
+    static String words(int length, long seed) {
+        Random random = new Random(seed);
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            if (builder.length() > 0 && random.nextInt(6) == 0 && builder.charAt(builder.length() - 1) != ' ') {
+                builder.append(' ');
+            } else {
+                builder.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        return builder.toString();
+    }
+}
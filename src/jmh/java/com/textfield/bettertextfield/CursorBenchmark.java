@@ -0,0 +1,86 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.gui.GuiTextFieldOrig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 选区移动时的滚动与点击定位：{@link PatchedTextField} 对照 {@link GuiTextFieldOrig}。
+ * 字体是 {@link TestFonts} 中不加载纹理的 FontRenderer，宽度计算与原版相同，但不包含 Unicode 字形页。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CursorBenchmark {
+    @Param({"32", "256", "32500"})
+    public int length;
+
+    private PatchedTextField patched;
+    private GuiTextFieldOrig vanilla;
+    private int position;
+    private int pixelX;
+
+    @Setup
+    public void setUp() {
+        String text = BenchmarkTexts.words(this.length, 0L);
+        this.patched = BenchmarkFields.patched(TestFonts.fixedWidth(6), text);
+        this.vanilla = BenchmarkFields.vanilla(TestFonts.fixedWidth(6), text);
+        // 滚动到文本中间
+        this.patched.setCursorPosition(this.length / 2);
+        this.vanilla.setCursorPosition(this.length / 2);
+    }
+
+    private int nextPosition() {
+        this.position = (this.position + 7) % (this.length + 1);
+        return this.position;
+    }
+
+    private int nextPixelX() {
+        this.pixelX = (this.pixelX + 13) % BenchmarkFields.WIDTH;
+        return this.pixelX;
+    }
+
+    /**
+     * Shift 选择：选区末端移动，可见范围随之滚动。
+     */
+    @Benchmark
+    public int patchedSelect() {
+        this.patched.setSelectionPos(this.nextPosition());
+        return this.patched.getSelectionEnd();
+    }
+
+    @Benchmark
+    public int vanillaSelect() {
+        this.vanilla.setSelectionPos(this.nextPosition());
+        return this.vanilla.getSelectionEnd();
+    }
+
+    /**
+     * 在可见范围内点击，光标不会离开可见范围，不发生滚动。
+     */
+    @Benchmark
+    public int patchedClick() {
+        this.patched.mouseClicked(this.nextPixelX(), 10, 0);
+        return this.patched.getCursorPosition();
+    }
+
+    @Benchmark
+    public int vanillaClick() {
+        this.vanilla.mouseClicked(this.nextPixelX(), 10, 0);
+        return this.vanilla.getCursorPosition();
+    }
+}
@@ -0,0 +1,83 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.gui.GuiTextFieldOrig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 光标移动与编辑之后的第一帧 drawTextBox：{@link PatchedTextField} 对照 {@link GuiTextFieldOrig}。
+ * <p>
+ * patched 绘制前更新 {@link TextLayout}，原版截取可见文本并计算宽度；字形的 GL 绘制都不在测量之内。
+ * 原版使用 {@link TestFonts#withoutDrawing}，绘制时只计算文字末端的位置。
+ * 没有变化时的开销见 {@link IdleFieldsBenchmark}。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DrawTextBoxBenchmark {
+    @Param({"32", "256", "32500"})
+    public int length;
+
+    private PatchedTextField patched;
+    private GuiTextFieldOrig vanilla;
+    private int frame;
+
+    @Setup
+    public void setUp() {
+        String text = BenchmarkTexts.words(this.length, 0L);
+        this.patched = BenchmarkFields.patched(TestFonts.fixedWidth(6), text);
+        this.vanilla = BenchmarkFields.vanilla(TestFonts.withoutDrawing(6), text);
+        this.patched.drawTextBox();
+        this.vanilla.drawTextBox();
+    }
+
+    /**
+     * 光标在可见范围内左右移动一格。
+     */
+    @Benchmark
+    public PatchedTextField patchedCursorMove() {
+        this.patched.setCursorPosition((this.frame++ & 1) == 0 ? this.length - 1 : this.length);
+        this.patched.drawTextBox();
+        return this.patched;
+    }
+
+    @Benchmark
+    public GuiTextFieldOrig vanillaCursorMove() {
+        this.vanilla.setCursorPosition((this.frame++ & 1) == 0 ? this.length - 1 : this.length);
+        this.vanilla.drawTextBox();
+        return this.vanilla;
+    }
+
+    /**
+     * 替换末尾的字符，可见文本需要重新截取。
+     */
+    @Benchmark
+    public PatchedTextField patchedAfterEdit() {
+        this.patched.deleteFromCursor(-1);
+        this.patched.writeText((this.frame++ & 1) == 0 ? "a" : "b");
+        this.patched.drawTextBox();
+        return this.patched;
+    }
+
+    @Benchmark
+    public GuiTextFieldOrig vanillaAfterEdit() {
+        this.vanilla.deleteFromCursor(-1);
+        this.vanilla.writeText((this.frame++ & 1) == 0 ? "a" : "b");
+        this.vanilla.drawTextBox();
+        return this.vanilla;
+    }
+}
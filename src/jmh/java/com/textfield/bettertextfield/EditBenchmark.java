@@ -0,0 +1,88 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.gui.GuiTextFieldOrig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在文本框中输入后删除，文本回到原样：{@link PatchedTextField} 对照 {@link GuiTextFieldOrig}。
+ * 光标每次向后移动几个字符，包含移动间隙与滚动的开销；patched 还包含记录撤销历史的开销。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EditBenchmark {
+    @Param({"32", "256", "32500"})
+    public int length;
+
+    private PatchedTextField patched;
+    private GuiTextFieldOrig vanilla;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        String text = BenchmarkTexts.words(this.length, 0L);
+        this.patched = BenchmarkFields.patched(TestFonts.fixedWidth(6), text);
+        this.vanilla = BenchmarkFields.vanilla(TestFonts.fixedWidth(6), text);
+        this.cursor = 0;
+    }
+
+    private int nextCursor() {
+        this.cursor += 7;
+        if (this.cursor > this.length) {
+            this.cursor -= this.length + 1;
+        }
+        return this.cursor;
+    }
+
+    @Benchmark
+    public PatchedTextField patchedTypeAndBackspace() {
+        this.patched.setCursorPosition(this.nextCursor());
+        this.patched.writeText("a");
+        this.patched.deleteFromCursor(-1);
+        return this.patched;
+    }
+
+    @Benchmark
+    public GuiTextFieldOrig vanillaTypeAndBackspace() {
+        this.vanilla.setCursorPosition(this.nextCursor());
+        this.vanilla.writeText("a");
+        this.vanilla.deleteFromCursor(-1);
+        return this.vanilla;
+    }
+
+    /**
+     * 输入一个单词，Ctrl+Backspace 删除它，再退格删除剩下的空格。
+     */
+    @Benchmark
+    public PatchedTextField patchedDeleteWords() {
+        this.patched.setCursorPosition(this.nextCursor());
+        this.patched.writeText(" ab ");
+        this.patched.deleteWords(-1);
+        this.patched.deleteFromCursor(-1);
+        return this.patched;
+    }
+
+    @Benchmark
+    public GuiTextFieldOrig vanillaDeleteWords() {
+        this.vanilla.setCursorPosition(this.nextCursor());
+        this.vanilla.writeText(" ab ");
+        this.vanilla.deleteWords(-1);
+        this.vanilla.deleteFromCursor(-1);
+        return this.vanilla;
+    }
+}
@@ -0,0 +1,99 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.gui.GuiTextFieldOrig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在文本框中做 depth 次不相邻的输入，然后全部撤销、重做、再撤销，文本回到初始状态。
+ * <p>
+ * 原版没有撤销，{@link #vanilla} 对照的是调用方在每次输入前保存 getText 的快照、撤销时 setText 的做法。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EditHistoryBenchmark {
+    @Param({"32", "256", "32500"})
+    public int length;
+
+    /// 不超过 TextFieldData 中每个文本框的历史容量
+    @Param({"1", "10", "50"})
+    public int depth;
+
+    private PatchedTextField patched;
+    private GuiTextFieldOrig vanilla;
+    /// 第 i 次输入前的文本，第 depth 项为全部输入后的文本
+    private String[] snapshots;
+
+    @Setup
+    public void setUp() {
+        String text = BenchmarkTexts.words(this.length, 0L);
+        this.patched = BenchmarkFields.patched(TestFonts.fixedWidth(6), text);
+        this.vanilla = BenchmarkFields.vanilla(TestFonts.fixedWidth(6), text);
+        this.snapshots = new String[this.depth + 1];
+    }
+
+    /**
+     * 光标在两次输入之间移动过，每次输入都是一条新记录。
+     */
+    private int position(int i) {
+        return (this.length / 2 + i * 2) % (this.length + 1);
+    }
+
+    @Benchmark
+    public String patched() {
+        PatchedTextField field = this.patched;
+        for (int i = 0; i < this.depth; i++) {
+            field.setCursorPosition(this.position(i));
+            field.writeText("a");
+        }
+        for (int i = 0; i < this.depth; i++) {
+            TextFieldLogic.undo(field);
+        }
+        for (int i = 0; i < this.depth; i++) {
+            TextFieldLogic.redo(field);
+        }
+        for (int i = 0; i < this.depth; i++) {
+            TextFieldLogic.undo(field);
+        }
+        return field.getText();
+    }
+
+    @Benchmark
+    public String vanilla() {
+        GuiTextFieldOrig field = this.vanilla;
+        for (int i = 0; i < this.depth; i++) {
+            this.snapshots[i] = field.getText();
+            field.setCursorPosition(this.position(i));
+            field.writeText("a");
+        }
+        this.snapshots[this.depth] = field.getText();
+        for (int i = this.depth - 1; i >= 0; i--) {
+            field.setText(this.snapshots[i]);
+            field.setCursorPosition(this.position(i));
+        }
+        for (int i = 1; i <= this.depth; i++) {
+            field.setText(this.snapshots[i]);
+            field.setCursorPosition(this.position(i - 1) + 1);
+        }
+        for (int i = this.depth - 1; i >= 0; i--) {
+            field.setText(this.snapshots[i]);
+            field.setCursorPosition(this.position(i));
+        }
+        return field.getText();
+    }
+}
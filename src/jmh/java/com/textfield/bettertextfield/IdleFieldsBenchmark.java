@@ -0,0 +1,78 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.gui.FontRenderer;
+import net.minecraft.client.gui.GuiTextFieldOrig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一帧内绘制 N 个只设置过文本、从未获得焦点的文本框。
+ * <p>
+ * {@link #patched} 绘制 {@link PatchedTextField}，它们没有 {@link TextFieldData}，只经过 getVisible 处的判断就交给原版；
+ * {@link #vanilla} 绘制同样设置的 {@link GuiTextFieldOrig}。
+ * 两者都关闭背景并使用 {@link TestFonts#withoutDrawing}，测量的是绘制之前的判断与文本运算，不含 GL 绘制。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdleFieldsBenchmark {
+    @Param({"1", "16", "256"})
+    public int fields;
+
+    @Param({"32", "256", "32500"})
+    public int length;
+
+    private PatchedTextField[] patched;
+    private GuiTextFieldOrig[] vanilla;
+
+    @Setup
+    public void setUp() {
+        FontRenderer fontRenderer = TestFonts.withoutDrawing(6);
+        this.patched = new PatchedTextField[this.fields];
+        this.vanilla = new GuiTextFieldOrig[this.fields];
+        for (int i = 0; i < this.fields; i++) {
+            String text = BenchmarkTexts.words(this.length, i);
+            PatchedTextField patched = new PatchedTextField(i, fontRenderer, 0, 0, 200, 20);
+            patched.setEnableBackgroundDrawing(false);
+            patched.setMaxStringLength(this.length);
+            patched.setText(text);
+            if (patched.betterTextField$peekData() != null) {
+                throw new IllegalStateException("an idle field should stay on the path without TextFieldData");
+            }
+            GuiTextFieldOrig vanilla = new GuiTextFieldOrig(i, fontRenderer, 0, 0, 200, 20);
+            vanilla.setEnableBackgroundDrawing(false);
+            vanilla.setMaxStringLength(this.length);
+            vanilla.setText(text);
+            this.patched[i] = patched;
+            this.vanilla[i] = vanilla;
+        }
+    }
+
+    @Benchmark
+    public void patched() {
+        for (PatchedTextField field : this.patched) {
+            field.drawTextBox();
+        }
+    }
+
+    @Benchmark
+    public void vanilla() {
+        for (GuiTextFieldOrig field : this.vanilla) {
+            field.drawTextBox();
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.textfield.bettertextfield;
 
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.resources.IReloadableResourceManager;
 import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -18,4 +21,12 @@ import org.apache.logging.log4j.Logger;
 )
 public class BetterTextField {
     public static final Logger LOGGER = LogManager.getLogger(Tags.MOD_NAME);
+
+    @Mod.EventHandler
+    public void init(FMLInitializationEvent event) {
+        // 在 FontRenderer 之后注册，重载时字形宽度已经更新
+        ((IReloadableResourceManager) Minecraft.getMinecraft().getResourceManager())
+                .registerReloadListener(resourceManager -> WidthIndex.invalidateAll());
+        MemoryWatcher.install();
+    }
 }
@@ -0,0 +1,43 @@
+package com.textfield.bettertextfield;
+
+import net.minecraftforge.common.config.Config;
+import net.minecraftforge.common.config.ConfigManager;
+import net.minecraftforge.fml.client.event.ConfigChangedEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.relauncher.Side;
+
+@Config(modid = Tags.MOD_ID)
+public class BetterTextFieldConfig {
+    @Config.Comment({
+            "Consecutive typing or deleting is undone as one step,",
+            "until no edit happens for this many milliseconds. 0 disables grouping."
+    })
+    @Config.RangeInt(min = 0)
+    public static int undoGroupIdleMillis = 1000;
+
+    @Config.Comment({
+            "Total size of undo history shared by all text fields, in kilobytes.",
+            "When exceeded, the oldest steps of the least recently focused fields are dropped first."
+    })
+    @Config.RangeInt(min = 0)
+    public static int undoHistoryBudgetKilobytes = 8192;
+
+    @Config.Comment({
+            "When the heap is more than this percent full after garbage collection,",
+            "undo history of all unfocused text fields is dropped. 0 disables."
+    })
+    @Config.RangeInt(min = 0, max = 100)
+    public static int heapTrimThresholdPercent = 85;
+
+    @Mod.EventBusSubscriber(modid = Tags.MOD_ID, value = Side.CLIENT)
+    public static class EventHandler {
+        @SubscribeEvent
+        public static void onConfigChanged(ConfigChangedEvent.OnConfigChangedEvent event) {
+            if (Tags.MOD_ID.equals(event.getModID())) {
+                ConfigManager.sync(Tags.MOD_ID, Config.Type.INSTANCE);
+                MemoryWatcher.updateThreshold();
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.textfield.bettertextfield;
 
 import net.minecraft.client.gui.GuiScreen;
+import net.minecraft.util.ChatAllowedCharacters;
 import org.lwjgl.input.Keyboard;
 
 public final class ClientUtils {
@@ -12,7 +13,38 @@ public final class ClientUtils {
         return key == Keyboard.KEY_Y && isCtrlCombo();
     }
 
+    /**
+     * 没有按住任何修饰键的 Tab。Shift+Tab 与 Ctrl+Tab 通常由界面用来切换焦点或标签页。
+     */
+    public static boolean isKeyPlainTab(int key) {
+        return key == Keyboard.KEY_TAB && !GuiScreen.isCtrlKeyDown() && !GuiScreen.isShiftKeyDown() && !GuiScreen.isAltKeyDown();
+    }
+
     public static boolean isCtrlCombo() {
         return GuiScreen.isCtrlKeyDown() && !GuiScreen.isShiftKeyDown() && !GuiScreen.isAltKeyDown();
     }
+
+    /**
+     * 等价于 {@code ChatAllowedCharacters.filterAllowedCharacters(input)} 的前 limit 个字符，
+     * 但凑够 limit 个字符后就停止扫描，粘贴的开销不会超过文本框的剩余容量。
+     */
+    public static String filterAllowedCharacters(String input, int limit) {
+        int length = input.length();
+        int i = 0;
+        // 大多数输入不含非法字符，此时直接截取原字符串
+        while (i < length && i < limit && ChatAllowedCharacters.isAllowedCharacter(input.charAt(i))) {
+            i++;
+        }
+        if (i == length) return input;
+        if (i == limit) return input.substring(0, i);
+        StringBuilder builder = new StringBuilder(Math.min(limit, length));
+        builder.append(input, 0, i);
+        for (; i < length && builder.length() < limit; i++) {
+            char c = input.charAt(i);
+            if (ChatAllowedCharacters.isAllowedCharacter(c)) {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
 }
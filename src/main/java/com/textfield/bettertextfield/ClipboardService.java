@@ -0,0 +1,116 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiScreen;
+import net.minecraft.client.gui.GuiTextField;
+import net.minecraftforge.client.event.GuiOpenEvent;
+import net.minecraftforge.client.event.GuiScreenEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.relauncher.Side;
+import org.lwjgl.input.Keyboard;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * 在后台线程读写剪贴板，避免 X11 等环境下访问剪贴板时卡住客户端线程。
+ * <p>
+ * 文本框有焦点时按下 Ctrl 会预先读取剪贴板，粘贴时通常已经读好，可以立即写入；
+ * 否则等读取完成后在之后的 tick 中由客户端线程写入按下 Ctrl+V 时的位置，见 {@link PasteAnchor}。
+ * 预读的内容只用于一次粘贴，松开 Ctrl 后也会作废，因为剪贴板随时可能被其他程序修改。
+ */
+public final class ClipboardService {
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, Tags.MOD_NAME + " Clipboard");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /// 最近一次读取的结果，只在客户端线程上替换
+    @Nullable
+    private static CompletableFuture<String> contents;
+    /// 当前有焦点的文本框，切换界面时清空
+    @Nullable
+    private static GuiTextField focusedField;
+
+    private ClipboardService() {
+    }
+
+    /**
+     * 开始读取剪贴板，之前读到的内容作废。
+     */
+    public static void prefetch() {
+        contents = fetch();
+    }
+
+    private static CompletableFuture<String> fetch() {
+        return CompletableFuture.supplyAsync(GuiScreen::getClipboardString, WORKER).exceptionally(e -> "");
+    }
+
+    /**
+     * 文本框获得或失去焦点时调用，没有文本框有焦点时按下 Ctrl 不预读。
+     */
+    public static void onFocusChanged(GuiTextField field, boolean focused) {
+        if (focused) {
+            focusedField = field;
+        } else if (focusedField == field) {
+            focusedField = null;
+        }
+    }
+
+    /**
+     * 与 {@link GuiScreen#setClipboardString(String)} 相同，空字符串不会写入。
+     */
+    public static void write(String text) {
+        if (text.isEmpty()) return;
+        // 写入完成前的粘贴也能得到新内容
+        contents = CompletableFuture.completedFuture(text);
+        WORKER.execute(() -> GuiScreen.setClipboardString(text));
+    }
+
+    /**
+     * 取得剪贴板内容。已经读好时立即在当前线程调用 action，否则读完后在客户端线程调用。
+     */
+    public static void read(Consumer<String> action) {
+        CompletableFuture<String> future = contents;
+        // 预读的内容只用一次，下一次粘贴重新读取
+        contents = null;
+        if (future == null) {
+            future = fetch();
+        }
+        if (future.isDone()) {
+            action.accept(future.getNow(""));
+        } else {
+            future.thenAccept(text -> Minecraft.getMinecraft().addScheduledTask(() -> action.accept(text)));
+        }
+    }
+
+    @Mod.EventBusSubscriber(modid = Tags.MOD_ID, value = Side.CLIENT)
+    public static class EventHandler {
+        @SubscribeEvent
+        public static void onKeyboardInput(GuiScreenEvent.KeyboardInputEvent.Pre event) {
+            if (Keyboard.isRepeatEvent()) return;
+            int key = Keyboard.getEventKey();
+            // 与 GuiScreen.isCtrlKeyDown 一致，macOS 上是 Command 键
+            boolean ctrl = Minecraft.IS_RUNNING_ON_MAC
+                    ? key == Keyboard.KEY_LMETA || key == Keyboard.KEY_RMETA
+                    : key == Keyboard.KEY_LCONTROL || key == Keyboard.KEY_RCONTROL;
+            if (!ctrl) return;
+            if (!Keyboard.getEventKeyState()) {
+                contents = null;
+            } else if (focusedField != null && focusedField.isFocused() && focusedField.getVisible()) {
+                prefetch();
+            }
+        }
+
+        @SubscribeEvent
+        public static void onGuiOpen(GuiOpenEvent event) {
+            focusedField = null;
+            contents = null;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.util.math.MathHelper;
+import net.minecraftforge.client.event.GuiOpenEvent;
+import net.minecraftforge.client.event.GuiScreenEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.relauncher.Side;
+import org.lwjgl.input.Mouse;
+
+import javax.annotation.Nullable;
+
+/**
+ * 由鼠标事件驱动拖选，代替每帧轮询鼠标状态。同一时间只有一个文本框在拖选。
+ * <p>
+ * 鼠标坐标的缩放比例只在窗口大小、GUI 缩放或 Unicode 字体设置改变时重新计算。
+ */
+public final class DragSelection {
+    @Nullable
+    private static Target target;
+
+    private static int displayWidth = -1;
+    private static int displayHeight = -1;
+    private static int guiScale = -1;
+    private static boolean unicode;
+    private static int scaledWidth = 1;
+
+    private DragSelection() {
+    }
+
+    public static void begin(Target field) {
+        if (target != null && target != field) {
+            target.betterTextField$endDrag();
+        }
+        target = field;
+    }
+
+    public static void end(Target field) {
+        if (target == field) {
+            target = null;
+        }
+    }
+
+    /**
+     * 把窗口坐标换算为 GUI 坐标，与 {@code GuiScreen} 的换算结果相同。
+     */
+    public static int toScaledX(int rawX) {
+        Minecraft mc = Minecraft.getMinecraft();
+        if (mc.displayWidth != displayWidth || mc.displayHeight != displayHeight
+                || mc.gameSettings.guiScale != guiScale || mc.isUnicode() != unicode) {
+            displayWidth = mc.displayWidth;
+            displayHeight = mc.displayHeight;
+            guiScale = mc.gameSettings.guiScale;
+            unicode = mc.isUnicode();
+            scaledWidth = MathHelper.ceil(displayWidth / (double) computeScaleFactor());
+        }
+        // 窗口最小化时宽度为 0
+        return displayWidth > 0 ? rawX * scaledWidth / displayWidth : rawX;
+    }
+
+    private static int computeScaleFactor() {
+        // 与 ScaledResolution 的构造函数相同
+        int factor = 1;
+        int limit = guiScale == 0 ? 1000 : guiScale;
+        while (factor < limit && displayWidth / (factor + 1) >= 320 && displayHeight / (factor + 1) >= 240) {
+            factor++;
+        }
+        if (unicode && factor % 2 != 0 && factor != 1) {
+            factor--;
+        }
+        return factor;
+    }
+
+    public interface Target {
+        /**
+         * 鼠标移动到 GUI 坐标 mouseX 处。
+         */
+        void betterTextField$dragTo(int mouseX);
+
+        void betterTextField$endDrag();
+    }
+
+    @Mod.EventBusSubscriber(modid = Tags.MOD_ID, value = Side.CLIENT)
+    public static class EventHandler {
+        @SubscribeEvent(priority = EventPriority.HIGH)
+        public static void onMouseInput(GuiScreenEvent.MouseInputEvent.Pre event) {
+            Target current = target;
+            if (current == null) return;
+            current.betterTextField$dragTo(toScaledX(Mouse.getEventX()));
+            if (Mouse.getEventButton() == 0 && !Mouse.getEventButtonState()) {
+                current.betterTextField$endDrag();
+            }
+        }
+
+        @SubscribeEvent
+        public static void onGuiOpen(GuiOpenEvent event) {
+            if (target != null) {
+                target.betterTextField$endDrag();
+            }
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.textfield.bettertextfield;
+
+import javax.annotation.Nullable;
+
+/**
+ * 定长环形缓冲区保存的撤销/重做历史，撤销栈与重做栈共用同一段槽位。
+ * <p>
+ * {@code [0, position)} 是可撤销的记录，{@code [position, size)} 是可重做的记录，
+ * 每条记录都是在 {@code offset} 处把 removed 替换为 inserted 的增量。
+ * 写满后覆盖最旧的槽位，压入、撤销、重做和裁剪都不分配对象。
+ * <p>
+ * 连续的同类编辑（见 {@link EditKind}）会并入栈顶记录，直到空闲超时、光标跳转或编辑种类改变。
+ * 合并期间不断增长的文本先写入 {@link StringBuilder}，合并组结束时才生成字符串，
+ * 连续输入时每次按键不再复制整段已输入的文本。
+ * <p>
+ * 记录占用的字节数计入 {@link HistoryBudget}，超出全局预算时最旧的记录会被提前丢弃。
+ */
+public final class EditHistory {
+    /// 合并组结束后 growing 最多保留的容量
+    private static final int MAX_RETAINED_CAPACITY = 256;
+
+    private final int capacity;
+    private final int[] offsets;
+    private final String[] removed;
+    private final String[] inserted;
+    private final int[] cursorBefore;
+    private final int[] selectionBefore;
+    private final int[] cursorAfter;
+    private final int[] selectionAfter;
+    /// 为 true 时与前一条记录一起撤销/重做
+    private final boolean[] joined;
+
+    private int head = 0;
+    private int size = 0;
+    private int position = 0;
+
+    /// 栈顶记录仍可合并时的编辑种类，否则为 OTHER
+    private EditKind openKind = EditKind.OTHER;
+    private long lastEditTime;
+    /// 合并中的栈顶记录不断增长的一侧：INSERT 为 inserted，BACKSPACE/DELETE 为 removed。
+    /// BACKSPACE 时按删除顺序倒序保存，合并组结束时再反转
+    private StringBuilder growing = new StringBuilder();
+    /// 为 true 时栈顶记录的这一侧以 growing 为准
+    private boolean growingOpen = false;
+
+    private int restoredCursor;
+    private int restoredSelection;
+
+    private final HistoryBudget.Entry budget = HistoryBudget.register(this);
+
+    public EditHistory(int capacity) {
+        this.capacity = capacity;
+        this.offsets = new int[capacity];
+        this.removed = new String[capacity];
+        this.inserted = new String[capacity];
+        this.cursorBefore = new int[capacity];
+        this.selectionBefore = new int[capacity];
+        this.cursorAfter = new int[capacity];
+        this.selectionAfter = new int[capacity];
+        this.joined = new boolean[capacity];
+    }
+
+    public void push(EditKind kind, int offset, String removed, String inserted,
+                     int cursorBefore, int selectionBefore, int cursorAfter, int selectionAfter,
+                     boolean joined) {
+        // 达到最大长度时输入、在开头退格等编辑没有改变文本，不记录也不清空重做栈
+        if (removed.equals(inserted)) return;
+        // 与 Minecraft.getSystemTime() 相同的毫秒时钟，不依赖 LWJGL
+        long now = System.nanoTime() / 1000000L;
+        // 空闲时间为 0 时不合并，否则同一毫秒内的两次编辑仍会被合并
+        boolean merged = kind != EditKind.OTHER && kind == this.openKind
+                && BetterTextFieldConfig.undoGroupIdleMillis > 0
+                && now - this.lastEditTime <= BetterTextFieldConfig.undoGroupIdleMillis
+                && this.merge(kind, offset, removed, inserted, cursorBefore, selectionBefore, cursorAfter, selectionAfter);
+        if (!merged) {
+            this.closeGrowing();
+        }
+        this.openKind = kind;
+        this.lastEditTime = now;
+        if (merged) {
+            HistoryBudget.enforce(this);
+            return;
+        }
+        this.clearRedo();
+        if (this.size == this.capacity) {
+            this.dropOldest();
+        }
+        int slot = this.slot(this.size);
+        this.offsets[slot] = offset;
+        this.removed[slot] = removed;
+        this.inserted[slot] = inserted;
+        this.cursorBefore[slot] = cursorBefore;
+        this.selectionBefore[slot] = selectionBefore;
+        this.cursorAfter[slot] = cursorAfter;
+        this.selectionAfter[slot] = selectionAfter;
+        this.joined[slot] = joined;
+        this.size++;
+        this.position++;
+        this.budget.add(sizeOf(removed) + sizeOf(inserted));
+        HistoryBudget.enforce(this);
+    }
+
+    private boolean merge(EditKind kind, int offset, String removed, String inserted,
+                          int cursorBefore, int selectionBefore, int cursorAfter, int selectionAfter) {
+        if (this.position == 0 || this.position != this.size) return false;
+        int slot = this.slot(this.position - 1);
+        // 光标在两次编辑之间移动过
+        if (cursorBefore != this.cursorAfter[slot] || selectionBefore != this.selectionAfter[slot]) return false;
+        switch (kind) {
+            case INSERT:
+                if (!removed.isEmpty() || offset != this.offsets[slot] + this.growingLength(this.inserted[slot])) return false;
+                this.openGrowing(this.inserted[slot], false).append(inserted);
+                break;
+            case BACKSPACE:
+                if (!inserted.isEmpty() || !this.inserted[slot].isEmpty() || offset + removed.length() != this.offsets[slot]) return false;
+                // 在开头插入每次都要移动已删除的全部字符，改为倒序追加
+                appendReversed(this.openGrowing(this.removed[slot], true), removed);
+                this.offsets[slot] = offset;
+                break;
+            case DELETE:
+                if (!inserted.isEmpty() || !this.inserted[slot].isEmpty() || offset != this.offsets[slot]) return false;
+                this.openGrowing(this.removed[slot], false).append(removed);
+                break;
+            default:
+                return false;
+        }
+        this.cursorAfter[slot] = cursorAfter;
+        this.selectionAfter[slot] = selectionAfter;
+        // 合并只增加字符，不增加字符串对象
+        this.budget.add(2L * (removed.length() + inserted.length()));
+        return true;
+    }
+
+    /**
+     * 栈顶记录是否是与前一条记录一起撤销的外部修改，并且之后没有重做记录。
+     */
+    public boolean isTopJoined() {
+        return this.position > 0 && this.position == this.size && this.joined[this.slot(this.position - 1)];
+    }
+
+    /**
+     * 把紧接着栈顶记录发生的修改并入栈顶记录，合并后仍是一条从原文本到新文本的最小修改。
+     * 连续调用 setText 时撤销历史不会随调用次数增长。合并后文本与原文本相同时丢弃栈顶记录。
+     *
+     * @param text 这次修改前的文本，也就是套用栈顶记录后的文本
+     */
+    public void foldIntoTop(String text, int offset, String removed, String inserted, int cursorAfter, int selectionAfter) {
+        this.closeGroup();
+        int slot = this.slot(this.position - 1);
+        int topOffset = this.offsets[slot];
+        int topEnd = topOffset + this.inserted[slot].length();
+        // 两次修改在中间文本上覆盖的范围
+        int start = Math.min(topOffset, offset);
+        int end = Math.max(topEnd, offset + removed.length());
+        String before = text.substring(start, topOffset) + this.removed[slot] + text.substring(topEnd, end);
+        String after = text.substring(start, offset) + inserted + text.substring(offset + removed.length(), end);
+        this.budget.add(-this.sizeOf(slot));
+        if (before.equals(after)) {
+            this.removed[slot] = null;
+            this.inserted[slot] = null;
+            this.size--;
+            this.position--;
+            return;
+        }
+        TextChange change = TextChange.between(before, after, 0);
+        this.offsets[slot] = start + change.getOffset();
+        this.removed[slot] = change.getRemoved();
+        this.inserted[slot] = change.getInserted();
+        this.cursorAfter[slot] = cursorAfter;
+        this.selectionAfter[slot] = selectionAfter;
+        this.budget.add(this.sizeOf(slot));
+        HistoryBudget.enforce(this);
+    }
+
+    private int growingLength(String text) {
+        return this.growingOpen ? this.growing.length() : text.length();
+    }
+
+    /**
+     * @param reversed 为 true 时倒序写入 text，见 {@link #growing}
+     */
+    private StringBuilder openGrowing(String text, boolean reversed) {
+        if (!this.growingOpen) {
+            this.growing.setLength(0);
+            if (reversed) {
+                appendReversed(this.growing, text);
+            } else {
+                this.growing.append(text);
+            }
+            this.growingOpen = true;
+        }
+        return this.growing;
+    }
+
+    /**
+     * 逐个 char 倒序追加。与 {@link StringBuilder#reverse()} 不同，不把代理对当作整体，
+     * 逐字符删除代理对的两半时，两次反转后仍是原来的顺序。
+     */
+    private static void appendReversed(StringBuilder builder, String text) {
+        for (int i = text.length() - 1; i >= 0; i--) {
+            builder.append(text.charAt(i));
+        }
+    }
+
+    /**
+     * 把 growing 写回栈顶记录。读取或丢弃记录前，以及合并组结束时调用。
+     */
+    private void closeGrowing() {
+        if (!this.growingOpen) return;
+        this.growingOpen = false;
+        int slot = this.slot(this.position - 1);
+        StringBuilder growing = this.growing;
+        if (this.openKind == EditKind.BACKSPACE) {
+            // 恢复为正序
+            for (int i = 0, j = growing.length() - 1; i < j; i++, j--) {
+                char c = growing.charAt(i);
+                growing.setCharAt(i, growing.charAt(j));
+                growing.setCharAt(j, c);
+            }
+        }
+        String text = growing.toString();
+        if (this.openKind == EditKind.INSERT) {
+            this.inserted[slot] = text;
+        } else {
+            this.removed[slot] = text;
+        }
+        if (this.growing.capacity() > MAX_RETAINED_CAPACITY) {
+            this.growing = new StringBuilder();
+        }
+    }
+
+    /**
+     * 结束当前的合并组，之后的编辑总是新开一条记录。
+     */
+    public void closeGroup() {
+        this.closeGrowing();
+        this.openKind = EditKind.OTHER;
+    }
+
+    /**
+     * 文本框获得或失去焦点时调用。超出预算时最久未获得焦点的历史先被裁剪，
+     * 内存紧张时只保留有焦点的历史。
+     */
+    public void setFocused(boolean focused) {
+        this.budget.setFocused(focused);
+    }
+
+    public boolean canUndo() {
+        return this.position > 0;
+    }
+
+    public boolean canRedo() {
+        return this.position < this.size;
+    }
+
+    /**
+     * 撤销最近的一组记录，之后可通过 {@link #getRestoredCursor()} 与 {@link #getRestoredSelection()} 取得应恢复的选区。
+     *
+     * @param replay 每套用一条记录后调用
+     */
+    public void undo(TextBuffer buffer, @Nullable Replay replay) {
+        this.closeGroup();
+        int slot;
+        do {
+            this.position--;
+            slot = this.slot(this.position);
+            buffer.replace(this.offsets[slot], this.offsets[slot] + this.inserted[slot].length(), this.removed[slot]);
+            if (replay != null) {
+                replay.onReplace(this.offsets[slot], this.inserted[slot], this.removed[slot]);
+            }
+        } while (this.joined[slot] && this.position > 0);
+        this.restoredCursor = this.cursorBefore[slot];
+        this.restoredSelection = this.selectionBefore[slot];
+    }
+
+    public void redo(TextBuffer buffer, @Nullable Replay replay) {
+        this.closeGroup();
+        int slot;
+        do {
+            slot = this.slot(this.position);
+            this.position++;
+            buffer.replace(this.offsets[slot], this.offsets[slot] + this.removed[slot].length(), this.inserted[slot]);
+            if (replay != null) {
+                replay.onReplace(this.offsets[slot], this.removed[slot], this.inserted[slot]);
+            }
+        } while (this.position < this.size && this.joined[this.slot(this.position)]);
+        this.restoredCursor = this.cursorAfter[slot];
+        this.restoredSelection = this.selectionAfter[slot];
+    }
+
+    public int getRestoredCursor() {
+        return this.restoredCursor;
+    }
+
+    public int getRestoredSelection() {
+        return this.restoredSelection;
+    }
+
+    public void clearRedo() {
+        for (int i = this.position; i < this.size; i++) {
+            this.clearSlot(this.slot(i));
+        }
+        this.size = this.position;
+    }
+
+    /**
+     * 丢弃最旧的一条记录，没有可撤销的记录时丢弃最远的重做记录。
+     *
+     * @return 记录数不超过 keep 时不做任何事并返回 false
+     */
+    boolean trimOldest(int keep) {
+        if (this.size <= keep) return false;
+        this.closeGrowing();
+        if (this.position > 0) {
+            this.dropOldest();
+        } else {
+            this.size--;
+            this.clearSlot(this.slot(this.size));
+        }
+        return true;
+    }
+
+    /**
+     * 丢弃全部撤销与重做记录。
+     */
+    public void clear() {
+        this.closeGroup();
+        while (this.size > 0) {
+            this.trimOldest(0);
+        }
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    private void dropOldest() {
+        this.clearSlot(this.head);
+        this.head = this.slot(1);
+        this.size--;
+        this.position--;
+    }
+
+    private void clearSlot(int slot) {
+        this.budget.add(-this.sizeOf(slot));
+        // 只释放字符串引用，数组本身留给之后的记录复用
+        this.removed[slot] = null;
+        this.inserted[slot] = null;
+    }
+
+    private long sizeOf(int slot) {
+        return sizeOf(this.removed[slot]) + sizeOf(this.inserted[slot]);
+    }
+
+    /// 字符串对象头与字符数组的估算大小
+    private static long sizeOf(@Nullable String string) {
+        return string == null ? 0L : 40L + 2L * string.length();
+    }
+
+    private int slot(int index) {
+        int slot = this.head + index;
+        return slot >= this.capacity ? slot - this.capacity : slot;
+    }
+
+    public interface Replay {
+        /**
+         * 撤销或重做时，{@code offset} 处的 removed 被替换为 inserted。
+         */
+        void onReplace(int offset, String removed, String inserted);
+    }
+}
@@ -0,0 +1,15 @@
+package com.textfield.bettertextfield;
+
+/**
+ * 编辑的种类，相同种类且连续的编辑会合并为一次撤销。
+ */
+public enum EditKind {
+    /// 输入单个字符
+    INSERT,
+    /// 向前删除单个字符
+    BACKSPACE,
+    /// 向后删除单个字符
+    DELETE,
+    /// 粘贴、剪切、删除单词、setText 等，总是单独成组
+    OTHER
+}
@@ -0,0 +1,88 @@
+package com.textfield.bettertextfield;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+
+import javax.annotation.Nullable;
+
+/**
+ * 原版 writeText 与 deleteFromCursor 对文本的修改，直接在 {@link TextBuffer} 上完成。
+ * 光标移动、记录历史与通知仍由调用方按原版的顺序进行。
+ */
+public final class FieldEdit {
+    private final int offset;
+    private final String removed;
+    private final String inserted;
+
+    private FieldEdit(int offset, String removed, String inserted) {
+        this.offset = offset;
+        this.removed = removed;
+        this.inserted = inserted;
+    }
+
+    /**
+     * 与原版 writeText 相同：用过滤后的 textToWrite 替换选区，超出最大长度的部分被丢弃。
+     *
+     * @return 校验失败时恢复原文本并返回 null
+     */
+    @Nullable
+    public static FieldEdit write(TextBuffer buffer, int cursor, int selection, int maxLength,
+                                  Predicate<String> validator, String textToWrite) {
+        // setMaxStringLength 截断文本时不移动光标，选区可能超出文本。与原版相同，超出的部分仍计入剩余容量
+        int room = Math.max(maxLength - buffer.length() + Math.abs(cursor - selection), 0);
+        int start = Math.min(Math.min(cursor, selection), buffer.length());
+        int end = Math.min(Math.max(cursor, selection), buffer.length());
+        // 只过滤剩余容量能容纳的部分
+        String inserted = ClientUtils.filterAllowedCharacters(textToWrite, room);
+        String removed = buffer.substring(start, end);
+        buffer.replace(start, end, inserted);
+        if (!validate(buffer, validator)) {
+            buffer.replace(start, start + inserted.length(), removed);
+            return null;
+        }
+        return new FieldEdit(start, removed, inserted);
+    }
+
+    /**
+     * 与原版 deleteFromCursor 在没有选区时相同：删除光标前（num 为负）或光标后的 |num| 个字符，超出文本的部分被忽略。
+     *
+     * @return 校验失败时恢复原文本并返回 null
+     */
+    @Nullable
+    public static FieldEdit delete(TextBuffer buffer, int cursor, int num, Predicate<String> validator) {
+        boolean backwards = num < 0;
+        int start = Math.max(backwards ? cursor + num : cursor, 0);
+        int end = Math.min(backwards ? cursor : cursor + num, buffer.length());
+        String removed = buffer.substring(start, end);
+        buffer.delete(start, end);
+        if (!validate(buffer, validator)) {
+            buffer.insert(start, removed);
+            return null;
+        }
+        return new FieldEdit(start, removed, "");
+    }
+
+    private static boolean validate(TextBuffer buffer, Predicate<String> validator) {
+        // 默认的 validator 恒为 true，此时不必为校验生成字符串
+        return validator == Predicates.<String>alwaysTrue() || validator.apply(buffer.toString());
+    }
+
+    public int getOffset() {
+        return this.offset;
+    }
+
+    public String getRemoved() {
+        return this.removed;
+    }
+
+    public String getInserted() {
+        return this.inserted;
+    }
+
+    /**
+     * 达到最大长度时输入、在开头退格等情况下，编辑通过了校验但文本没有变化。
+     */
+    public boolean changesText() {
+        return !this.removed.equals(this.inserted);
+    }
+}
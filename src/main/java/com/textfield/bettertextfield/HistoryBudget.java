@@ -0,0 +1,158 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.Minecraft;
+import net.minecraftforge.client.event.RenderGameOverlayEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.relauncher.Side;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 所有文本框的撤销历史共用的内存预算，只在客户端线程上使用。
+ * <p>
+ * 每个 {@link EditHistory} 通过弱引用登记，被回收后它占用的字节数自动归还。
+ * 超出预算时从最久未获得焦点的文本框开始，逐条丢弃最旧的记录。
+ * 当前用量显示在 F3 调试界面的右侧。
+ */
+public final class HistoryBudget {
+    /// 按最近一次获得或失去焦点的先后排列，最久未获得焦点的在前
+    private static final List<Entry> ENTRIES = new ArrayList<>();
+    private static final ReferenceQueue<EditHistory> QUEUE = new ReferenceQueue<>();
+    private static long usedBytes = 0L;
+
+    private HistoryBudget() {
+    }
+
+    /**
+     * 所有存活的撤销历史估算占用的字节数。
+     */
+    public static long getUsedBytes() {
+        expunge();
+        return usedBytes;
+    }
+
+    public static int getHistoryCount() {
+        expunge();
+        return ENTRIES.size();
+    }
+
+    public static long getBudgetBytes() {
+        return BetterTextFieldConfig.undoHistoryBudgetKilobytes * 1024L;
+    }
+
+    static Entry register(EditHistory history) {
+        expunge();
+        Entry entry = new Entry(history);
+        ENTRIES.add(entry);
+        return entry;
+    }
+
+    /**
+     * 超出预算时丢弃旧记录，{@code current} 至少保留最新的一条。
+     */
+    static void enforce(EditHistory current) {
+        long budget = getBudgetBytes();
+        if (usedBytes <= budget) return;
+        expunge();
+        // 列表本身就是裁剪的顺序，不必复制与排序
+        for (int i = 0; i < ENTRIES.size() && usedBytes > budget; i++) {
+            Entry entry = ENTRIES.get(i);
+            if (entry.bytes == 0L) continue;
+            EditHistory history = entry.get();
+            if (history == null) continue;
+            int keep = history == current ? 1 : 0;
+            while (usedBytes > budget) {
+                if (!history.trimOldest(keep)) break;
+            }
+        }
+    }
+
+    /**
+     * 清空所有没有焦点的文本框的撤销历史。
+     *
+     * @return 释放的字节数
+     */
+    static long clearUnfocused() {
+        expunge();
+        long before = usedBytes;
+        for (Entry entry : ENTRIES) {
+            EditHistory history = entry.get();
+            if (history != null && !entry.focused) {
+                history.clear();
+            }
+        }
+        return before - usedBytes;
+    }
+
+    /**
+     * 有撤销历史但没有焦点的文本框数量。
+     */
+    static int countUnfocused() {
+        expunge();
+        int count = 0;
+        for (Entry entry : ENTRIES) {
+            EditHistory history = entry.get();
+            if (history != null && !entry.focused && !history.isEmpty()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void expunge() {
+        Entry entry;
+        boolean removed = false;
+        while ((entry = (Entry) QUEUE.poll()) != null) {
+            usedBytes -= entry.bytes;
+            entry.expunged = true;
+            removed = true;
+        }
+        if (removed) {
+            // 只移除已经出队的引用，未出队的仍需留在列表中保持可达
+            ENTRIES.removeIf(e -> e.expunged);
+        }
+    }
+
+    static final class Entry extends WeakReference<EditHistory> {
+        private long bytes = 0L;
+        private boolean expunged = false;
+        private boolean focused = false;
+
+        private Entry(EditHistory history) {
+            super(history, QUEUE);
+        }
+
+        void add(long delta) {
+            this.bytes += delta;
+            usedBytes += delta;
+        }
+
+        /**
+         * 移到列表末尾，成为最近获得焦点的历史。只在焦点改变时调用，编辑不影响裁剪顺序。
+         */
+        void setFocused(boolean focused) {
+            this.focused = focused;
+            // 最近获得焦点的通常已经在末尾附近
+            int index = ENTRIES.lastIndexOf(this);
+            if (index >= 0 && index != ENTRIES.size() - 1) {
+                ENTRIES.remove(index);
+                ENTRIES.add(this);
+            }
+        }
+    }
+
+    @Mod.EventBusSubscriber(modid = Tags.MOD_ID, value = Side.CLIENT)
+    public static class EventHandler {
+        @SubscribeEvent
+        public static void onDebugText(RenderGameOverlayEvent.Text event) {
+            if (!Minecraft.getMinecraft().gameSettings.showDebugInfo) return;
+            event.getRight().add("");
+            event.getRight().add(String.format("Text field undo: %d/%d KiB (%d)",
+                    getUsedBytes() / 1024L, getBudgetBytes() / 1024L, getHistoryCount()));
+        }
+    }
+}
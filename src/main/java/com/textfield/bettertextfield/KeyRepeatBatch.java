@@ -0,0 +1,65 @@
+package com.textfield.bettertextfield;
+
+import net.minecraftforge.client.event.GuiOpenEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.relauncher.Side;
+
+import javax.annotation.Nullable;
+
+/**
+ * 记录哪个文本框积攒了尚未执行的连发按键。
+ * <p>
+ * 文本框在被读取或修改前会自行执行积攒的按键；这里负责在客户端 tick 结束
+ * （此时本 tick 的输入已经处理完）和切换界面时执行剩下的部分。
+ */
+public final class KeyRepeatBatch {
+    @Nullable
+    private static Target pending;
+
+    private KeyRepeatBatch() {
+    }
+
+    public static void add(Target field) {
+        if (pending != null && pending != field) {
+            pending.betterTextField$flushPending();
+        }
+        pending = field;
+    }
+
+    public static void remove(Target field) {
+        if (pending == field) {
+            pending = null;
+        }
+    }
+
+    public static void flush() {
+        if (pending != null) {
+            pending.betterTextField$flushPending();
+        }
+    }
+
+    public interface Target {
+        /**
+         * 执行积攒的按键，之后的状态与逐个处理这些按键时相同。
+         */
+        void betterTextField$flushPending();
+    }
+
+    @Mod.EventBusSubscriber(modid = Tags.MOD_ID, value = Side.CLIENT)
+    public static class EventHandler {
+        @SubscribeEvent
+        public static void onClientTick(TickEvent.ClientTickEvent event) {
+            if (event.phase == TickEvent.Phase.END) {
+                flush();
+            }
+        }
+
+        @SubscribeEvent(priority = EventPriority.HIGHEST)
+        public static void onGuiOpen(GuiOpenEvent event) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.Minecraft;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 堆内存紧张时清空没有焦点的文本框的撤销历史。
+ * <p>
+ * 在老年代等支持阈值的堆内存池上设置 GC 后用量阈值，超过时由 JMX 线程发出通知，
+ * 实际的清理交给客户端线程执行。
+ * <p>
+ * 阈值是整个 JVM 共用的，其他 mod 或监控工具设置的阈值不会被覆盖，它们触发的通知也会被忽略。
+ */
+public final class MemoryWatcher {
+    private static final AtomicBoolean PENDING = new AtomicBoolean(false);
+    private static final NotificationListener LISTENER = MemoryWatcher::onNotification;
+    /// 由本类设置的阈值，键为内存池名称；通知在 JMX 线程上读取
+    private static final Map<String, Long> OWNED = new ConcurrentHashMap<>();
+    private static boolean installed = false;
+
+    private MemoryWatcher() {
+    }
+
+    public static void install() {
+        if (!installed) {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(LISTENER, null, null);
+            installed = true;
+        }
+        updateThreshold();
+    }
+
+    /**
+     * 按配置重新设置阈值。配置为 0 时不改动阈值，只是忽略之后的通知，
+     * 因为写入 0 会同时关掉别人依赖的同一个阈值。
+     */
+    public static void updateThreshold() {
+        if (!installed) return;
+        int percent = BetterTextFieldConfig.heapTrimThresholdPercent;
+        if (percent <= 0) return;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            // 只有老年代这类长期存活对象所在的池支持用量阈值
+            if (pool.getType() != MemoryType.HEAP || !pool.isUsageThresholdSupported()) continue;
+            long max = pool.getUsage().getMax();
+            if (max <= 0) continue;
+            long threshold = max / 100L * percent;
+            // GC 后的用量才能反映真正存活的数据，不支持时退而使用实时用量
+            boolean collection = pool.isCollectionUsageThresholdSupported();
+            long current = collection ? pool.getCollectionUsageThreshold() : pool.getUsageThreshold();
+            Long owned = OWNED.get(pool.getName());
+            if (current != 0L && (owned == null || current != owned)) {
+                // 阈值已被别人设置
+                OWNED.remove(pool.getName());
+                continue;
+            }
+            if (collection) {
+                pool.setCollectionUsageThreshold(threshold);
+            } else {
+                pool.setUsageThreshold(threshold);
+            }
+            OWNED.put(pool.getName(), threshold);
+        }
+    }
+
+    private static void onNotification(Notification notification, Object handback) {
+        String type = notification.getType();
+        if (!MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(type)
+                && !MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(type)) return;
+        if (BetterTextFieldConfig.heapTrimThresholdPercent <= 0) return;
+        MemoryNotificationInfo info = MemoryNotificationInfo.from((CompositeData) notification.getUserData());
+        // 只响应本类设置的阈值，别人设置的更低阈值触发的通知不算
+        Long threshold = OWNED.get(info.getPoolName());
+        if (threshold == null || info.getUsage().getUsed() < threshold) return;
+        // 连续的通知只排一次清理
+        if (PENDING.compareAndSet(false, true)) {
+            Minecraft.getMinecraft().addScheduledTask(MemoryWatcher::trim);
+        }
+    }
+
+    private static void trim() {
+        PENDING.set(false);
+        int fields = HistoryBudget.countUnfocused();
+        long freed = HistoryBudget.clearUnfocused();
+        if (freed > 0) {
+            BetterTextField.LOGGER.info("Heap usage above {}%, dropped {} KiB of undo history from {} unfocused text fields",
+                    BetterTextFieldConfig.heapTrimThresholdPercent, freed / 1024L, fields);
+        }
+    }
+}
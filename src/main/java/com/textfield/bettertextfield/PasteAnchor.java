@@ -0,0 +1,40 @@
+package com.textfield.bettertextfield;
+
+/**
+ * 按下 Ctrl+V 时的选区。剪贴板读好之前，选区随其间的编辑移动，读好后粘贴到这里，
+ * 与先粘贴、再执行之后的按键时的位置相同。
+ */
+public final class PasteAnchor implements TextBuffer.Listener {
+    private int start;
+    private int end;
+    /// 为 true 时正在写入的是先按下的粘贴，与选区重叠时排在它后面
+    boolean behind = false;
+
+    PasteAnchor(int start, int end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public void onReplace(int offset, int removedLength, int insertedLength) {
+        int removedEnd = offset + removedLength;
+        if (removedEnd < this.start || removedEnd == this.start && removedLength > 0) {
+            // 在选区之前
+            this.start += insertedLength - removedLength;
+            this.end += insertedLength - removedLength;
+        } else if (offset < this.end || offset == this.end && this.start == this.end) {
+            // 与选区重叠或插入在选区处：之后输入的文字排在粘贴之后，选区已被粘贴替换，不再保留
+            int position = this.behind ? offset + insertedLength : offset;
+            this.start = position;
+            this.end = position;
+        }
+    }
+
+    public int getStart() {
+        return this.start;
+    }
+
+    public int getEnd() {
+        return this.end;
+    }
+}
@@ -0,0 +1,79 @@
+package com.textfield.bettertextfield;
+
+import net.minecraftforge.client.event.GuiOpenEvent;
+import net.minecraftforge.client.event.GuiScreenEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.relauncher.Side;
+import org.lwjgl.input.Keyboard;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 开启了防抖的文本框中尚未通知 responder 的修改，在客户端 tick 中检查是否已经静止足够久。
+ * 按下回车或切换界面时立即通知。
+ */
+public final class ResponderDebounce {
+    private static final List<Target> PENDING = new ArrayList<>();
+
+    private ResponderDebounce() {
+    }
+
+    public static void schedule(Target field) {
+        if (!PENDING.contains(field)) {
+            PENDING.add(field);
+        }
+    }
+
+    /**
+     * 立即通知所有等待中的 responder。
+     */
+    public static void flushAll() {
+        dispatch(true);
+    }
+
+    private static void dispatch(boolean force) {
+        if (PENDING.isEmpty()) return;
+        // responder 中可能再次修改文本框，在副本上遍历
+        for (Target field : PENDING.toArray(new Target[0])) {
+            if (!field.betterTextField$dispatchResponder(force)) {
+                PENDING.remove(field);
+            }
+        }
+    }
+
+    public interface Target {
+        /**
+         * 静止时间已满或 force 为 true 时，以当前文本通知 responder。
+         *
+         * @return 是否仍有尚未通知的修改
+         */
+        boolean betterTextField$dispatchResponder(boolean force);
+    }
+
+    @Mod.EventBusSubscriber(modid = Tags.MOD_ID, value = Side.CLIENT)
+    public static class EventHandler {
+        @SubscribeEvent
+        public static void onClientTick(TickEvent.ClientTickEvent event) {
+            if (event.phase == TickEvent.Phase.END) {
+                dispatch(false);
+            }
+        }
+
+        @SubscribeEvent(priority = EventPriority.HIGHEST)
+        public static void onKeyboardInput(GuiScreenEvent.KeyboardInputEvent.Pre event) {
+            int key = Keyboard.getEventKey();
+            if (Keyboard.getEventKeyState() && (key == Keyboard.KEY_RETURN || key == Keyboard.KEY_NUMPADENTER)) {
+                flushAll();
+            }
+        }
+
+        @SubscribeEvent(priority = EventPriority.HIGHEST)
+        public static void onGuiOpen(GuiOpenEvent event) {
+            flushAll();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.textfield.bettertextfield;
+
+/**
+ * 一条补全建议：把文本的 {@code [start, end)} 替换为 {@code replacement}。
+ */
+public final class Suggestion {
+    private final int start;
+    private final int end;
+    private final String replacement;
+
+    public Suggestion(int start, int end, String replacement) {
+        this.start = start;
+        this.end = end;
+        this.replacement = replacement;
+    }
+
+    public int getStart() {
+        return this.start;
+    }
+
+    public int getEnd() {
+        return this.end;
+    }
+
+    public String getReplacement() {
+        return this.replacement;
+    }
+
+    @Override
+    public String toString() {
+        return "Suggestion{[" + this.start + ", " + this.end + ") -> '" + this.replacement + "'}";
+    }
+}
@@ -0,0 +1,13 @@
+package com.textfield.bettertextfield;
+
+import java.util.List;
+
+/**
+ * 通过 {@link TextFieldExtension#betterTextField$setSuggestionProvider(SuggestionProvider)} 为文本框提供补全建议。
+ * <p>
+ * 在后台线程调用，不能访问文本框或其他只能在客户端线程使用的对象。
+ */
+@FunctionalInterface
+public interface SuggestionProvider {
+    List<Suggestion> getSuggestions(SuggestionRequest request);
+}
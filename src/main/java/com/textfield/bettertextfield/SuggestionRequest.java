@@ -0,0 +1,41 @@
+package com.textfield.bettertextfield;
+
+/**
+ * 交给 {@link SuggestionProvider} 的文本快照。文本框再次修改后请求会被取消，
+ * 耗时的实现应不时检查 {@link #isCancelled()} 并提前返回。
+ */
+public final class SuggestionRequest {
+    private final String text;
+    private final int cursor;
+    private final int version;
+    private volatile boolean cancelled = false;
+
+    public SuggestionRequest(String text, int cursor, int version) {
+        this.text = text;
+        this.cursor = cursor;
+        this.version = version;
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
+    public int getCursor() {
+        return this.cursor;
+    }
+
+    /**
+     * 发出请求时文本框的 {@link TextFieldExtension#betterTextField$getVersion()}。
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    void cancel() {
+        this.cancelled = true;
+    }
+}
@@ -0,0 +1,101 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.Minecraft;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 执行补全请求的有界线程池，所有文本框共用。每个文本框同时最多只有一个请求，
+ * 队列满时丢弃最旧的请求并通知它所属的文本框。
+ */
+public final class SuggestionService {
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            1, 2, 30L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(8),
+            runnable -> {
+                Thread thread = new Thread(runnable, Tags.MOD_NAME + " Suggestions #" + THREAD_ID.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            SuggestionService::discardOldest
+    );
+
+    private SuggestionService() {
+    }
+
+    /**
+     * 在后台线程向 provider 请求补全，结果在客户端线程上交给 callback。被取消的请求不会回调。
+     *
+     * @param discarded 请求因队列已满被丢弃时调用
+     */
+    public static Runnable submit(SuggestionProvider provider, SuggestionRequest request,
+                                  BiConsumer<SuggestionRequest, List<Suggestion>> callback,
+                                  Consumer<SuggestionRequest> discarded) {
+        Task task = new Task(provider, request, callback, discarded);
+        EXECUTOR.execute(task);
+        return task;
+    }
+
+    /**
+     * 被丢弃的可能是另一个文本框唯一的请求，不通知的话它会一直等待不会到来的结果。
+     * 在提交请求的客户端线程上执行。
+     */
+    private static void discardOldest(Runnable runnable, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) return;
+        Runnable oldest = executor.getQueue().poll();
+        if (oldest instanceof Task) {
+            ((Task) oldest).discard();
+        }
+        executor.execute(runnable);
+    }
+
+    /**
+     * 取消请求，尚未开始执行时直接从队列中移除。
+     */
+    public static void cancel(SuggestionRequest request, Runnable task) {
+        request.cancel();
+        EXECUTOR.remove(task);
+    }
+
+    private static final class Task implements Runnable {
+        private final SuggestionProvider provider;
+        private final SuggestionRequest request;
+        private final BiConsumer<SuggestionRequest, List<Suggestion>> callback;
+        private final Consumer<SuggestionRequest> discarded;
+
+        private Task(SuggestionProvider provider, SuggestionRequest request,
+                     BiConsumer<SuggestionRequest, List<Suggestion>> callback, Consumer<SuggestionRequest> discarded) {
+            this.provider = provider;
+            this.request = request;
+            this.callback = callback;
+            this.discarded = discarded;
+        }
+
+        @Override
+        public void run() {
+            if (this.request.isCancelled()) return;
+            List<Suggestion> suggestions;
+            try {
+                suggestions = this.provider.getSuggestions(this.request);
+            } catch (RuntimeException e) {
+                BetterTextField.LOGGER.warn("Suggestion provider {} failed", this.provider, e);
+                return;
+            }
+            if (!this.request.isCancelled()) {
+                Minecraft.getMinecraft().addScheduledTask(() -> this.callback.accept(this.request, suggestions));
+            }
+        }
+
+        private void discard() {
+            this.request.cancel();
+            this.discarded.accept(this.request);
+        }
+    }
+}
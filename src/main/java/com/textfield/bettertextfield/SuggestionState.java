@@ -0,0 +1,138 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.gui.GuiTextField;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 设置了 {@link SuggestionProvider} 的文本框的补全状态，只在客户端线程上访问。
+ * <p>
+ * 每次修改文本都会以新的快照发出请求并取消尚未完成的旧请求；
+ * 结果返回时文本已再次修改则直接丢弃，因此 {@link #getSuggestions()} 总是对应当前文本。
+ */
+public final class SuggestionState {
+    private final GuiTextField textField;
+    private final SuggestionProvider provider;
+
+    @Nullable
+    private SuggestionRequest request;
+    @Nullable
+    private Runnable task;
+    private List<Suggestion> suggestions = Collections.emptyList();
+    /// suggestions 对应的文本版本
+    private int suggestionsVersion = -1;
+    /// 按下 Tab 时结果尚未返回，返回后立即补全
+    private boolean completeOnArrival = false;
+
+    /// 连续按 Tab 时轮流使用的建议
+    private List<Suggestion> cycle = Collections.emptyList();
+    private int cycleIndex;
+    /// 上一次补全写入的范围
+    private int cycleStart;
+    private int cycleEnd;
+    /// 上一次补全后的文本版本，文本再被修改时轮换结束
+    private int cycleVersion = -1;
+
+    public SuggestionState(GuiTextField textField, SuggestionProvider provider) {
+        this.textField = textField;
+        this.provider = provider;
+    }
+
+    /**
+     * 文本被修改后调用，以当前文本发出新的请求。
+     */
+    public void request() {
+        this.cancel();
+        this.request = new SuggestionRequest(this.textField.getText(), this.textField.getCursorPosition(), this.version());
+        this.task = SuggestionService.submit(this.provider, this.request, this::onResult, this::onDiscarded);
+    }
+
+    /**
+     * 取消尚未完成的请求。
+     */
+    public void cancel() {
+        if (this.request != null) {
+            SuggestionService.cancel(this.request, this.task);
+            this.request = null;
+            this.task = null;
+        }
+        this.completeOnArrival = false;
+    }
+
+    /**
+     * @return 当前文本的补全建议，结果尚未返回时为空
+     */
+    public List<Suggestion> getSuggestions() {
+        return this.suggestionsVersion == this.version() ? this.suggestions : Collections.emptyList();
+    }
+
+    /**
+     * 按下 Tab 时调用：用第一条建议补全，连续按下时轮流替换为之后的建议。
+     * 当前文本的结果尚未返回时，等结果返回后再补全。
+     */
+    public void complete() {
+        int version = this.version();
+        if (this.cycleVersion == version && !this.cycle.isEmpty()) {
+            if (this.cycle.size() > 1) {
+                this.cycleIndex = (this.cycleIndex + 1) % this.cycle.size();
+                this.apply(this.cycleStart, this.cycleEnd, this.cycle.get(this.cycleIndex));
+            }
+            return;
+        }
+        List<Suggestion> suggestions = this.getSuggestions();
+        if (!suggestions.isEmpty()) {
+            Suggestion suggestion = suggestions.get(0);
+            this.cycle = suggestions;
+            this.cycleIndex = 0;
+            this.apply(suggestion.getStart(), suggestion.getEnd(), suggestion);
+            return;
+        }
+        if (this.request == null || this.request.getVersion() != version) {
+            this.request();
+        }
+        this.completeOnArrival = true;
+    }
+
+    private void onResult(SuggestionRequest request, List<Suggestion> suggestions) {
+        // 已被更新的请求取代，或文本在请求之后被修改过
+        if (request != this.request || request.getVersion() != this.version()) return;
+        this.request = null;
+        this.task = null;
+        this.suggestions = suggestions;
+        this.suggestionsVersion = request.getVersion();
+        if (this.completeOnArrival) {
+            this.completeOnArrival = false;
+            if (!suggestions.isEmpty()) {
+                this.complete();
+            }
+        }
+    }
+
+    /**
+     * 请求在队列中被其他文本框更新的请求挤掉，下次修改文本或按 Tab 时重新请求。
+     */
+    private void onDiscarded(SuggestionRequest request) {
+        if (request != this.request) return;
+        this.request = null;
+        this.task = null;
+        this.completeOnArrival = false;
+    }
+
+    private void apply(int start, int end, Suggestion suggestion) {
+        int length = this.textField.getText().length();
+        if (start < 0 || start > end || end > length) return;
+        this.cycleStart = start;
+        // 通过 writeText 写入，与手动输入一样经过 validator、长度限制、撤销历史和 responder
+        this.textField.setCursorPosition(end);
+        this.textField.setSelectionPos(start);
+        this.textField.writeText(suggestion.getReplacement());
+        this.cycleEnd = this.textField.getCursorPosition();
+        this.cycleVersion = this.version();
+    }
+
+    private int version() {
+        return TextFieldExtension.of(this.textField).betterTextField$getVersion();
+    }
+}
@@ -0,0 +1,216 @@
+package com.textfield.bettertextfield;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 间隙缓冲区（gap buffer），编辑开销只与编辑量和光标移动距离有关，与文本总长度无关。
+ * <p>
+ * {@link #toString()} 会缓存生成的字符串，直到下一次编辑；{@link #set(String)} 只记下字符串，
+ * 在真正编辑时才拷贝进数组。
+ * <p>
+ * 依赖文本内容的索引通过 {@link Listener} 得知被修改的范围。
+ */
+public final class TextBuffer implements CharSequence {
+    private static final char[] EMPTY = new char[0];
+    private static final int MIN_GAP = 16;
+
+    private char[] chars = EMPTY;
+    private int gapStart = 0;
+    private int gapEnd = 0;
+    /// 当前内容的字符串形式，为 null 时需要重新生成
+    private String string;
+    /// 为 true 时 chars 已过期，内容以 string 为准
+    private boolean stale;
+    /// 每次修改内容时递增
+    private int version = 0;
+    private final List<Listener> listeners = new ArrayList<>(2);
+
+    public TextBuffer(String text) {
+        this.string = text;
+        this.stale = true;
+    }
+
+    public void set(String text) {
+        int previousLength = this.length();
+        this.string = text;
+        this.stale = true;
+        this.version++;
+        this.notifyListeners(0, previousLength, text.length());
+    }
+
+    public int getVersion() {
+        return this.version;
+    }
+
+    public void addListener(Listener listener) {
+        this.listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        this.listeners.remove(listener);
+    }
+
+    @Override
+    public int length() {
+        return this.stale ? this.string.length() : this.chars.length - (this.gapEnd - this.gapStart);
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (this.stale) return this.string.charAt(index);
+        if (index < 0 || index >= this.length()) throw new StringIndexOutOfBoundsException(index);
+        return index < this.gapStart ? this.chars[index] : this.chars[index + this.gapEnd - this.gapStart];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return this.substring(start, end);
+    }
+
+    public String substring(int start, int end) {
+        if (start < 0 || end > this.length() || start > end) {
+            throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + this.length());
+        }
+        // Java 8 的 String.substring 对空范围也会创建新字符串
+        if (start == end) return "";
+        if (this.stale || this.string != null) return this.toString().substring(start, end);
+        char[] out = new char[end - start];
+        this.copyTo(start, end, out, 0);
+        return new String(out);
+    }
+
+    public int indexOf(char c, int fromIndex) {
+        if (this.stale) return this.string.indexOf(c, fromIndex);
+        int length = this.length();
+        for (int i = Math.max(fromIndex, 0); i < length; i++) {
+            if (this.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 用 {@code replacement} 的 {@code [from, to)} 部分替换 {@code [start, end)}。
+     */
+    public void replace(int start, int end, CharSequence replacement, int from, int to) {
+        int length = this.length();
+        if (start < 0 || end > length || start > end) {
+            throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + length);
+        }
+        int count = to - from;
+        if (start == end && count == 0) return;
+        this.load();
+        this.moveGap(start);
+        this.gapEnd += end - start;
+        this.ensureGap(count);
+        for (int i = from; i < to; i++) {
+            this.chars[this.gapStart++] = replacement.charAt(i);
+        }
+        this.string = null;
+        this.version++;
+        this.notifyListeners(start, end - start, count);
+    }
+
+    public void replace(int start, int end, CharSequence replacement) {
+        this.replace(start, end, replacement, 0, replacement.length());
+    }
+
+    public void insert(int index, CharSequence text) {
+        this.replace(index, index, text, 0, text.length());
+    }
+
+    public void delete(int start, int end) {
+        this.replace(start, end, "", 0, 0);
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        if (this.string == null) {
+            char[] out = new char[this.length()];
+            this.copyTo(0, out.length, out, 0);
+            this.string = new String(out);
+        }
+        return this.string;
+    }
+
+    /**
+     * 内容是否与 text 相同。已有字符串时直接比较（相同的对象不逐字比较），否则在缓冲区上逐字比较，不生成字符串。
+     */
+    public boolean contentEquals(String text) {
+        if (this.string != null) return this.string.equals(text);
+        int length = this.length();
+        if (text.length() != length) return false;
+        int gapLength = this.gapEnd - this.gapStart;
+        for (int i = 0; i < length; i++) {
+            if (this.chars[i < this.gapStart ? i : i + gapLength] != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private void notifyListeners(int offset, int removedLength, int insertedLength) {
+        for (int i = 0; i < this.listeners.size(); i++) {
+            this.listeners.get(i).onReplace(offset, removedLength, insertedLength);
+        }
+    }
+
+    private void copyTo(int start, int end, char[] dest, int destPos) {
+        int gapLength = this.gapEnd - this.gapStart;
+        if (start < this.gapStart) {
+            int n = Math.min(end, this.gapStart) - start;
+            System.arraycopy(this.chars, start, dest, destPos, n);
+            destPos += n;
+            start += n;
+        }
+        if (start < end) {
+            System.arraycopy(this.chars, start + gapLength, dest, destPos, end - start);
+        }
+    }
+
+    private void load() {
+        if (!this.stale) return;
+        int length = this.string.length();
+        if (this.chars.length < length + MIN_GAP) {
+            this.chars = new char[length + Math.max(MIN_GAP, length >> 1)];
+        }
+        this.string.getChars(0, length, this.chars, 0);
+        this.gapStart = length;
+        this.gapEnd = this.chars.length;
+        this.stale = false;
+    }
+
+    private void moveGap(int index) {
+        if (index < this.gapStart) {
+            int n = this.gapStart - index;
+            System.arraycopy(this.chars, index, this.chars, this.gapEnd - n, n);
+            this.gapStart -= n;
+            this.gapEnd -= n;
+        } else if (index > this.gapStart) {
+            int n = index - this.gapStart;
+            System.arraycopy(this.chars, this.gapEnd, this.chars, this.gapStart, n);
+            this.gapStart += n;
+            this.gapEnd += n;
+        }
+    }
+
+    private void ensureGap(int required) {
+        int gapLength = this.gapEnd - this.gapStart;
+        if (gapLength >= required) return;
+        int length = this.chars.length - gapLength;
+        int newCapacity = Math.max(this.chars.length * 2, length + required + MIN_GAP);
+        char[] grown = Arrays.copyOf(this.chars, newCapacity);
+        int tail = this.chars.length - this.gapEnd;
+        System.arraycopy(this.chars, this.gapEnd, grown, newCapacity - tail, tail);
+        this.chars = grown;
+        this.gapEnd = newCapacity - tail;
+    }
+
+    public interface Listener {
+        /**
+         * {@code [offset, offset + removedLength)} 被替换为长度为 {@code insertedLength} 的文本。
+         */
+        void onReplace(int offset, int removedLength, int insertedLength);
+    }
+}
@@ -0,0 +1,72 @@
+package com.textfield.bettertextfield;
+
+/**
+ * 一次文本修改：从 {@link #getOffset()} 开始的 {@link #getRemoved()} 被替换为 {@link #getInserted()}。
+ */
+public final class TextChange {
+    private final int offset;
+    private final String removed;
+    private final String inserted;
+    private final int version;
+
+    public TextChange(int offset, String removed, String inserted, int version) {
+        this.offset = offset;
+        this.removed = removed;
+        this.inserted = inserted;
+        this.version = version;
+    }
+
+    /**
+     * 只比较首尾相同的部分，得到从 previous 到 current 的最小修改。
+     */
+    public static TextChange between(String previous, String current, int version) {
+        int min = Math.min(previous.length(), current.length());
+        int prefix = 0;
+        while (prefix < min && previous.charAt(prefix) == current.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < min - prefix
+                && previous.charAt(previous.length() - 1 - suffix) == current.charAt(current.length() - 1 - suffix)) {
+            suffix++;
+        }
+        return new TextChange(
+                prefix,
+                previous.substring(prefix, previous.length() - suffix),
+                current.substring(prefix, current.length() - suffix),
+                version
+        );
+    }
+
+    public int getOffset() {
+        return this.offset;
+    }
+
+    public String getRemoved() {
+        return this.removed;
+    }
+
+    public String getInserted() {
+        return this.inserted;
+    }
+
+    /**
+     * 修改后文本框的 {@link TextFieldExtension#betterTextField$getVersion()}。
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * 是否只在末尾追加了文本，此时旧的过滤结果可以在新结果的基础上继续缩小。
+     */
+    public boolean isAppend(int newLength) {
+        return this.removed.isEmpty() && this.offset + this.inserted.length() == newLength;
+    }
+
+    @Override
+    public String toString() {
+        return "TextChange{offset=" + this.offset + ", removed='" + this.removed + "', inserted='" + this.inserted
+                + "', version=" + this.version + '}';
+    }
+}
@@ -0,0 +1,14 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.gui.GuiTextField;
+
+/**
+ * 通过 {@link TextFieldExtension#betterTextField$addChangeListener(TextChangeListener)} 注册，
+ * 与 responder 不同，收到的是修改的位置与内容而不是整段文本。
+ * <p>
+ * 在文本修改后、responder 之前于客户端线程调用。撤销一组记录时每条记录各调用一次。
+ */
+@FunctionalInterface
+public interface TextChangeListener {
+    void onTextChanged(GuiTextField field, TextChange change);
+}
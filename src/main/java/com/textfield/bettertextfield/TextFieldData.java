@@ -0,0 +1,135 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.gui.FontRenderer;
+import net.minecraft.client.gui.GuiTextField;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 文本框的附加状态，在首次获得焦点或首次编辑时才创建。
+ * 从未使用过的文本框（如大型配置界面中的只读文本框）只多一个空引用。
+ */
+public final class TextFieldData {
+    private static final int MAX_HISTORY_SIZE = 50;
+    private static final TextChangeListener[] NO_LISTENERS = new TextChangeListener[0];
+
+    @Nullable // 首次编辑时才创建，之前以 text 为准
+    private TextBuffer buffer;
+    @Nullable
+    private WidthIndex widthIndex;
+    @Nullable
+    private WordIndex wordIndex;
+    @Nullable
+    private EditHistory history;
+    @Nullable
+    private TextLayout layout;
+    /// 修改时整体替换，通知期间增删监听器不影响本次通知
+    private TextChangeListener[] changeListeners = NO_LISTENERS;
+
+    public boolean dragging = false;
+    /// 拖选时最近一次鼠标事件的 GUI 横坐标
+    public int dragMouseX;
+    /// 拖选平移开始后上一次推进的时间，没有平移时为 0
+    public long lastScrollTime = 0L;
+    /// 尚未换算成字符的平移距离（像素）
+    public float scrollRemainder = 0.0F;
+    /// responder 的防抖时间，0 表示不防抖
+    public int responderDebounceMillis = 0;
+    /// 应通知 responder 的时间，没有等待中的修改时为 0
+    public long responderDue = 0L;
+    /// 尚未执行的连发删除，负数为退格次数，正数为 Delete 次数
+    public int pendingDeletes = 0;
+    /// setText 或 setMaxStringLength 返回后才通知的修改，没有监听器与撤销历史时为 null
+    @Nullable
+    public TextChange pendingChange;
+    /// 设置了补全时才创建
+    @Nullable
+    public SuggestionState suggestions;
+    /// 剪贴板尚未读好的粘贴，按按下 Ctrl+V 的顺序排列，首次粘贴时才创建
+    @Nullable
+    public List<PasteAnchor> pendingPastes;
+
+    @Nullable
+    public TextBuffer peekBuffer() {
+        return this.buffer;
+    }
+
+    public TextBuffer getBuffer(String text) {
+        if (this.buffer == null) {
+            this.buffer = new TextBuffer(text);
+        }
+        return this.buffer;
+    }
+
+    /**
+     * @return 宽度不能逐字相加时为 null
+     */
+    @Nullable
+    public WidthIndex getWidthIndex(FontRenderer fontRenderer, String text) {
+        if (!WidthIndex.supports(fontRenderer)) return null;
+        TextBuffer buffer = this.getBuffer(text);
+        if (this.widthIndex == null) {
+            this.widthIndex = new WidthIndex(fontRenderer);
+            buffer.addListener(this.widthIndex);
+        }
+        return this.widthIndex.update(buffer) ? this.widthIndex : null;
+    }
+
+    public WordIndex getWordIndex(String text) {
+        if (this.wordIndex == null) {
+            TextBuffer buffer = this.getBuffer(text);
+            this.wordIndex = new WordIndex(buffer);
+            buffer.addListener(this.wordIndex);
+        }
+        return this.wordIndex;
+    }
+
+    @Nullable // 首次编辑时才创建
+    public EditHistory peekHistory() {
+        return this.history;
+    }
+
+    public EditHistory getHistory(boolean focused) {
+        if (this.history == null) {
+            this.history = new EditHistory(MAX_HISTORY_SIZE);
+            this.history.setFocused(focused);
+        }
+        return this.history;
+    }
+
+    public void addChangeListener(TextChangeListener listener) {
+        this.changeListeners = Arrays.copyOf(this.changeListeners, this.changeListeners.length + 1);
+        this.changeListeners[this.changeListeners.length - 1] = listener;
+    }
+
+    public void removeChangeListener(TextChangeListener listener) {
+        TextChangeListener[] listeners = this.changeListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                TextChangeListener[] removed = Arrays.copyOf(listeners, listeners.length - 1);
+                System.arraycopy(listeners, i + 1, removed, i, listeners.length - i - 1);
+                this.changeListeners = removed;
+                return;
+            }
+        }
+    }
+
+    public boolean hasChangeListeners() {
+        return this.changeListeners.length > 0;
+    }
+
+    public void fireChange(GuiTextField field, TextChange change) {
+        for (TextChangeListener listener : this.changeListeners) {
+            listener.onTextChanged(field, change);
+        }
+    }
+
+    public TextLayout getLayout() {
+        if (this.layout == null) {
+            this.layout = new TextLayout();
+        }
+        return this.layout;
+    }
+}
@@ -0,0 +1,45 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.gui.GuiTextField;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * 由 mixin 添加到每个 {@link GuiTextField} 上的扩展接口。
+ */
+public interface TextFieldExtension {
+    static TextFieldExtension of(GuiTextField textField) {
+        return (TextFieldExtension) textField;
+    }
+
+    /**
+     * 文本的修改计数，每次文本内容改变（输入、删除、撤销、setText 等）时递增，内容不变时保持不变。
+     * 可以代替比较字符串来判断文本是否被修改过。
+     */
+    int betterTextField$getVersion();
+
+    /**
+     * 注册文本修改监听器，之后每次文本内容改变时都会收到一个 {@link TextChange}。
+     */
+    void betterTextField$addChangeListener(TextChangeListener listener);
+
+    void betterTextField$removeChangeListener(TextChangeListener listener);
+
+    /**
+     * 设置 responder 的防抖时间。大于 0 时，连续的修改只在停止输入 millis 毫秒后以最新的文本通知一次 responder，
+     * 失去焦点或按下回车时立即通知。默认为 0，即每次修改都立即通知。
+     */
+    void betterTextField$setResponderDebounce(int millis);
+
+    /**
+     * 设置补全来源，为 null 时取消补全。每次修改文本都会在后台线程向 provider 请求补全，
+     * 按下 Tab 时用第一条建议补全，连续按下时轮流替换为之后的建议。
+     */
+    void betterTextField$setSuggestionProvider(@Nullable SuggestionProvider provider);
+
+    /**
+     * @return 当前文本的补全建议，未设置补全或结果尚未返回时为空
+     */
+    List<Suggestion> betterTextField$getSuggestions();
+}
@@ -0,0 +1,672 @@
+package com.textfield.bettertextfield;
+
+import com.google.common.base.Predicate;
+import net.minecraft.client.gui.FontRenderer;
+import net.minecraft.client.gui.GuiTextField;
+import net.minecraft.util.math.MathHelper;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GuiTextFieldMixin 接管的原版方法的实现，mixin 只负责把调用转到这里。
+ * <p>
+ * 原版的私有字段经由 {@link Target} 读写；光标移动、写入等仍调用 {@link GuiTextField} 的公开方法，
+ * 其他 mod 对这些方法的注入照常生效。测试与基准测试用实现了 Target 的子类运行同一份代码。
+ */
+public final class TextFieldLogic {
+    private TextFieldLogic() {
+    }
+
+    /**
+     * 由 GuiTextFieldMixin 实现，读写的是原版的字段。
+     */
+    public interface Target extends KeyRepeatBatch.Target {
+        String betterTextField$getTextField();
+
+        void betterTextField$setTextField(String text);
+
+        int betterTextField$getCursorField();
+
+        void betterTextField$setCursorField(int cursorPosition);
+
+        int betterTextField$getSelectionField();
+
+        void betterTextField$setSelectionField(int selectionEnd);
+
+        int betterTextField$getScrollField();
+
+        void betterTextField$setScrollField(int lineScrollOffset);
+
+        Predicate<String> betterTextField$getValidator();
+
+        @Nullable
+        FontRenderer betterTextField$getFontRenderer();
+
+        boolean betterTextField$isEnabled();
+
+        boolean betterTextField$canLoseFocus();
+
+        @Nullable
+        TextFieldData betterTextField$peekData();
+
+        TextFieldData betterTextField$getData();
+
+        int betterTextField$getVersion();
+
+        void betterTextField$setVersion(int version);
+
+        /**
+         * 以当前文本通知 responder，开启防抖时推迟。
+         */
+        void betterTextField$notifyResponder();
+
+        /**
+         * 拖选时鼠标停在文本框外，继续平移。
+         */
+        void betterTextField$autoScroll(TextFieldData data);
+
+        /**
+         * 由 {@link TextLayout} 绘制。
+         *
+         * @return 已经绘制或不可见时为 true，否则由原版绘制
+         */
+        boolean betterTextField$drawCached();
+    }
+
+    private static Target target(GuiTextField field) {
+        return (Target) field;
+    }
+
+    /*
+    附加状态
+     */
+
+    @Nullable
+    public static TextBuffer peekBuffer(GuiTextField field) {
+        TextFieldData data = target(field).betterTextField$peekData();
+        return data != null ? data.peekBuffer() : null;
+    }
+
+    public static TextBuffer getBuffer(GuiTextField field) {
+        Target target = target(field);
+        return target.betterTextField$getData().getBuffer(target.betterTextField$getTextField());
+    }
+
+    public static String getText(GuiTextField field) {
+        Target target = target(field);
+        TextBuffer buffer = peekBuffer(field);
+        if (buffer != null) {
+            // 缓冲区自带缓存，只在编辑后第一次读取时生成字符串
+            target.betterTextField$setTextField(buffer.toString());
+        }
+        return target.betterTextField$getTextField();
+    }
+
+    public static int getLength(GuiTextField field) {
+        TextBuffer buffer = peekBuffer(field);
+        return buffer != null ? buffer.length() : target(field).betterTextField$getTextField().length();
+    }
+
+    /**
+     * @return 宽度不能逐字相加，或文本框还没有附加状态时为 null，此时应使用原版实现
+     */
+    @Nullable
+    public static WidthIndex getWidthIndex(GuiTextField field) {
+        Target target = target(field);
+        FontRenderer fontRenderer = target.betterTextField$getFontRenderer();
+        TextFieldData data = target.betterTextField$peekData();
+        if (fontRenderer == null || data == null) return null;
+        return data.getWidthIndex(fontRenderer, target.betterTextField$getTextField());
+    }
+
+    public static int getWidthAfterScroll(GuiTextField field) {
+        int length = getLength(field);
+        int offset = Math.min(target(field).betterTextField$getScrollField(), length);
+        WidthIndex index = getWidthIndex(field);
+        if (index != null) {
+            return index.width(offset, length);
+        }
+        return target(field).betterTextField$getFontRenderer().getStringWidth(getText(field).substring(offset));
+    }
+
+    private static void nextVersion(Target target) {
+        target.betterTextField$setVersion(target.betterTextField$getVersion() + 1);
+    }
+
+    private static void fireChange(GuiTextField field, int offset, String removed, String inserted) {
+        Target target = target(field);
+        TextFieldData data = target.betterTextField$peekData();
+        if (data == null) return;
+        if (data.hasChangeListeners()) {
+            data.fireChange(field, new TextChange(offset, removed, inserted, target.betterTextField$getVersion()));
+        }
+        if (data.suggestions != null) {
+            data.suggestions.request();
+        }
+    }
+
+    /*
+    字段访问
+     */
+
+    /**
+     * 原版方法读取 text 字段时调用，先执行尚未执行的连发删除。
+     */
+    public static String readText(GuiTextField field) {
+        flushPending(field);
+        return getText(field);
+    }
+
+    /**
+     * setText 与 setMaxStringLength 写入 text 字段之后调用，同步缓冲区并记录这次修改。
+     *
+     * @param previous 写入前字段中的值，有缓冲区时可能已经过期
+     */
+    public static void onTextAssigned(GuiTextField field, String previous, String value) {
+        Target target = target(field);
+        TextBuffer buffer = peekBuffer(field);
+        // 内容相同时保留缓冲区与各项索引。有缓冲区时与缓冲区比较，不为此生成字符串
+        if (buffer != null ? buffer.contentEquals(value) : value.equals(previous)) return;
+        TextFieldData data = target.betterTextField$peekData();
+        if (data != null && buffer != null) {
+            cancelPastes(data, buffer);
+        }
+        // 只在有人需要时生成旧文本并比较新旧文本
+        boolean needsChange = data != null && (data.hasChangeListeners() || isRecording(data));
+        String before = needsChange ? (buffer != null ? buffer.toString() : previous) : null;
+        nextVersion(target);
+        TextChange change = needsChange ? TextChange.between(before, value, target.betterTextField$getVersion()) : null;
+        if (change != null) {
+            recordExternalChange(field, before, change, value.length());
+        }
+        if (buffer != null) {
+            buffer.set(value);
+        }
+        // 原版随后才移动光标，通知推迟到 setText 或 setMaxStringLength 返回后
+        if (data != null) {
+            data.pendingChange = change;
+        }
+    }
+
+    /**
+     * setText 与 setMaxStringLength 开始前调用。
+     *
+     * @return 当前的修改计数，交给 {@link #afterExternalChange}
+     */
+    public static int beforeExternalChange(GuiTextField field) {
+        flushPending(field);
+        return target(field).betterTextField$getVersion();
+    }
+
+    /**
+     * setText 与 setMaxStringLength 返回后通知监听器、重新请求补全并通知 responder，此时光标已经在最终位置。
+     */
+    public static void afterExternalChange(GuiTextField field, int previousVersion) {
+        Target target = target(field);
+        if (target.betterTextField$getVersion() == previousVersion) return;
+        TextFieldData data = target.betterTextField$peekData();
+        if (data != null) {
+            TextChange change = data.pendingChange;
+            data.pendingChange = null;
+            if (change != null && data.hasChangeListeners()) {
+                data.fireChange(field, change);
+            }
+            if (data.suggestions != null) {
+                data.suggestions.request();
+            }
+        }
+        target.betterTextField$notifyResponder();
+    }
+
+    /*
+    编辑
+     */
+
+    public static void writeText(GuiTextField field, String textToWrite) {
+        flushPending(field);
+        Target target = target(field);
+        int cursorBefore = target.betterTextField$getCursorField();
+        int selectionBefore = target.betterTextField$getSelectionField();
+        FieldEdit edit = FieldEdit.write(
+                getBuffer(field), cursorBefore, selectionBefore,
+                field.getMaxStringLength(), target.betterTextField$getValidator(), textToWrite
+        );
+        if (edit == null) return;
+        if (edit.changesText()) {
+            nextVersion(target);
+        }
+        field.moveCursorBy(edit.getOffset() - target.betterTextField$getSelectionField() + edit.getInserted().length());
+        if (edit.changesText()) {
+            fireChange(field, edit.getOffset(), edit.getRemoved(), edit.getInserted());
+        }
+        recordEdit(
+                field, edit.getInserted().length() == 1 ? EditKind.INSERT : EditKind.OTHER,
+                edit, cursorBefore, selectionBefore
+        );
+        target.betterTextField$notifyResponder();
+    }
+
+    public static void deleteFromCursor(GuiTextField field, int num) {
+        flushPending(field);
+        Target target = target(field);
+        TextBuffer buffer = getBuffer(field);
+        if (buffer.length() == 0) return;
+        if (target.betterTextField$getSelectionField() != target.betterTextField$getCursorField()) {
+            field.writeText("");
+            return;
+        }
+        int cursorBefore = target.betterTextField$getCursorField();
+        FieldEdit edit = FieldEdit.delete(buffer, cursorBefore, num, target.betterTextField$getValidator());
+        if (edit == null) return;
+        if (edit.changesText()) {
+            nextVersion(target);
+        }
+        if (num < 0) {
+            field.moveCursorBy(num);
+        }
+        if (edit.changesText()) {
+            fireChange(field, edit.getOffset(), edit.getRemoved(), "");
+        }
+        recordEdit(
+                field, num == -1 ? EditKind.BACKSPACE : num == 1 ? EditKind.DELETE : EditKind.OTHER,
+                edit, cursorBefore, cursorBefore
+        );
+        target.betterTextField$notifyResponder();
+    }
+
+    /*
+    光标与选区
+     */
+
+    public static void setCursorPosition(GuiTextField field, int pos) {
+        flushPending(field);
+        Target target = target(field);
+        target.betterTextField$setCursorField(MathHelper.clamp(pos, 0, getLength(field)));
+        field.setSelectionPos(target.betterTextField$getCursorField());
+    }
+
+    public static void setCursorPositionEnd(GuiTextField field) {
+        flushPending(field);
+        field.setCursorPosition(getLength(field));
+    }
+
+    /**
+     * @return 没有前缀和时为 false，此时应使用原版实现
+     */
+    public static boolean setSelectionPos(GuiTextField field, int position) {
+        flushPending(field);
+        WidthIndex index = getWidthIndex(field);
+        if (index == null) return false;
+        Target target = target(field);
+        position = MathHelper.clamp(position, 0, getLength(field));
+        target.betterTextField$setSelectionField(position);
+        target.betterTextField$setScrollField(index.scrollTo(target.betterTextField$getScrollField(), position, field.getWidth()));
+        return true;
+    }
+
+    /**
+     * @return 文本框还没有附加状态或 pos 超出文本范围时为 -1，此时应使用原版实现
+     */
+    public static int getNthWordFromPosWS(GuiTextField field, int n, int pos, boolean skipWs) {
+        flushPending(field);
+        TextFieldData data = target(field).betterTextField$peekData();
+        if (data == null || pos < 0 || pos > getLength(field)) return -1;
+        return data.getWordIndex(target(field).betterTextField$getTextField()).getNthWordFromPos(n, pos, skipWs);
+    }
+
+    /*
+    鼠标
+     */
+
+    /**
+     * 与原版 mouseClicked 相同，点击位置由前缀和查找。只在 fontRenderer 不为 null 时调用。
+     */
+    public static boolean mouseClicked(GuiTextField field, int mouseX, int mouseY, int mouseButton) {
+        flushPending(field);
+        boolean inside = mouseX >= field.x && mouseX < field.x + field.width && mouseY >= field.y && mouseY < field.y + field.height;
+        if (target(field).betterTextField$canLoseFocus()) {
+            field.setFocused(inside);
+        }
+        if (field.isFocused() && inside && mouseButton == 0) {
+            int pixelX = mouseX - field.x;
+            if (field.getEnableBackgroundDrawing()) {
+                pixelX -= 4;
+            }
+            field.setCursorPosition(hitTest(field, pixelX));
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * 可见文本中位于 pixelX（相对文本左边缘）处的字符下标，与原版两次 trimStringToWidth 的结果相同。
+     */
+    public static int hitTest(GuiTextField field, int pixelX) {
+        Target target = target(field);
+        int textWidth = field.getWidth();
+        int scroll = target.betterTextField$getScrollField();
+        WidthIndex index = getWidthIndex(field);
+        if (index != null) {
+            int offset = Math.min(scroll, getLength(field));
+            return Math.min(index.trimEnd(offset, textWidth), index.trimEnd(offset, pixelX));
+        }
+        FontRenderer fontRenderer = target.betterTextField$getFontRenderer();
+        // 截取从 lineScrollOffset 开始，且宽度不超过总宽度的子串，也就是当前可见的字符
+        String visible = fontRenderer.trimStringToWidth(getText(field).substring(scroll), textWidth);
+        // 截取 pixelX 到左边缘的字符
+        return fontRenderer.trimStringToWidth(visible, pixelX).length() + scroll;
+    }
+
+    /*
+    焦点
+     */
+
+    /**
+     * setFocused 返回时调用：获得焦点时创建附加状态；失去焦点时取消选中并结束当前的撤销合并。
+     */
+    public static void onFocusChanged(GuiTextField field, boolean focused) {
+        flushPending(field);
+        Target target = target(field);
+        TextFieldData data = focused ? target.betterTextField$getData() : target.betterTextField$peekData();
+        EditHistory history = data != null ? data.peekHistory() : null;
+        if (history != null) {
+            history.setFocused(focused);
+        }
+        if (!focused) {
+            field.moveCursorBy(0); // 取消选中
+            if (history != null) {
+                history.closeGroup();
+            }
+        }
+    }
+
+    /*
+    撤销/重做
+     */
+
+    @Nullable
+    private static EditHistory peekHistory(Target target) {
+        TextFieldData data = target.betterTextField$peekData();
+        return data != null ? data.peekHistory() : null;
+    }
+
+    private static boolean isRecording(TextFieldData data) {
+        EditHistory history = data.peekHistory();
+        return history != null && (history.canUndo() || history.canRedo());
+    }
+
+    /**
+     * 只在编辑通过校验后调用。文本没有变化时（达到最大长度、空文本上退格等）{@link EditHistory#push} 不记录，
+     * 也不清空重做栈，这里只是避免为此创建历史。
+     */
+    private static void recordEdit(GuiTextField field, EditKind kind, int offset, String removed, String inserted, int cursorBefore, int selectionBefore) {
+        if (removed.equals(inserted)) return;
+        Target target = target(field);
+        target.betterTextField$getData().getHistory(field.isFocused()).push(
+                kind, offset, removed, inserted,
+                cursorBefore, selectionBefore, target.betterTextField$getCursorField(), target.betterTextField$getSelectionField(),
+                false
+        );
+    }
+
+    private static void recordEdit(GuiTextField field, EditKind kind, FieldEdit edit, int cursorBefore, int selectionBefore) {
+        recordEdit(field, kind, edit.getOffset(), edit.getRemoved(), edit.getInserted(), cursorBefore, selectionBefore);
+    }
+
+    /**
+     * setText 等外部修改只记录与原文本不同的中间部分，并与上一条记录合并撤销，
+     * 这样撤销的结果与直接恢复整段文本时一致。连续的外部修改并为一条记录。
+     */
+    private static void recordExternalChange(GuiTextField field, String previous, TextChange change, int newLength) {
+        Target target = target(field);
+        EditHistory history = peekHistory(target);
+        if (history == null) return;
+        // 重做记录基于修改前的文本，已经无法套用
+        history.clearRedo();
+        if (!history.canUndo()) return;
+        if (history.isTopJoined()) {
+            history.foldIntoTop(previous, change.getOffset(), change.getRemoved(), change.getInserted(), newLength, newLength);
+            return;
+        }
+        history.push(
+                EditKind.OTHER, change.getOffset(), change.getRemoved(), change.getInserted(),
+                target.betterTextField$getCursorField(), target.betterTextField$getSelectionField(), newLength, newLength,
+                true
+        );
+    }
+
+    public static void undo(GuiTextField field) {
+        EditHistory history = peekHistory(target(field));
+        if (history != null && history.canUndo()) {
+            List<TextChange> changes = new ArrayList<>(1);
+            history.undo(getBuffer(field), (offset, removed, inserted) -> onReplay(field, changes, offset, removed, inserted));
+            restoreSelection(field, history.getRestoredCursor(), history.getRestoredSelection(), changes);
+        }
+    }
+
+    public static void redo(GuiTextField field) {
+        EditHistory history = peekHistory(target(field));
+        if (history != null && history.canRedo()) {
+            List<TextChange> changes = new ArrayList<>(1);
+            history.redo(getBuffer(field), (offset, removed, inserted) -> onReplay(field, changes, offset, removed, inserted));
+            restoreSelection(field, history.getRestoredCursor(), history.getRestoredSelection(), changes);
+        }
+    }
+
+    /**
+     * 监听器与补全要读取恢复后的光标，套用时只记下修改，由 {@link #restoreSelection} 通知。
+     */
+    private static void onReplay(GuiTextField field, List<TextChange> changes, int offset, String removed, String inserted) {
+        Target target = target(field);
+        nextVersion(target);
+        changes.add(new TextChange(offset, removed, inserted, target.betterTextField$getVersion()));
+    }
+
+    private static void restoreSelection(GuiTextField field, int cursor, int selection, List<TextChange> changes) {
+        field.setCursorPosition(cursor);
+        field.setSelectionPos(selection);
+        Target target = target(field);
+        TextFieldData data = target.betterTextField$getData();
+        if (data.hasChangeListeners()) {
+            for (TextChange change : changes) {
+                data.fireChange(field, change);
+            }
+        }
+        if (data.suggestions != null) {
+            data.suggestions.request();
+        }
+        target.betterTextField$notifyResponder();
+    }
+
+    /*
+    粘贴
+     */
+
+    /**
+     * 按下 Ctrl+V 时调用，记下此时的选区。剪贴板读好之前的编辑会移动它，见 {@link PasteAnchor}。
+     */
+    public static PasteAnchor beginPaste(GuiTextField field) {
+        flushPending(field);
+        Target target = target(field);
+        TextFieldData data = target.betterTextField$getData();
+        int cursor = target.betterTextField$getCursorField();
+        int selection = target.betterTextField$getSelectionField();
+        PasteAnchor anchor = new PasteAnchor(Math.min(cursor, selection), Math.max(cursor, selection));
+        getBuffer(field).addListener(anchor);
+        if (data.pendingPastes == null) {
+            data.pendingPastes = new ArrayList<>(1);
+        }
+        data.pendingPastes.add(anchor);
+        return anchor;
+    }
+
+    /**
+     * 剪贴板读好后调用。与原版 writeText 相同地替换记下的选区，光标与选区随之移动，
+     * 结果与先粘贴、再执行其间的按键时相同。
+     */
+    public static void paste(GuiTextField field, PasteAnchor anchor, String text) {
+        Target target = target(field);
+        TextFieldData data = target.betterTextField$getData();
+        // setText 等替换文本时已放弃
+        int index = data.pendingPastes != null ? data.pendingPastes.indexOf(anchor) : -1;
+        if (index < 0) return;
+        data.pendingPastes.remove(index);
+        TextBuffer buffer = getBuffer(field);
+        buffer.removeListener(anchor);
+        // 读取完成前文本框可能已失去焦点或被禁用
+        if (!field.isFocused() || !target.betterTextField$isEnabled()) return;
+        flushPending(field);
+        int cursor = target.betterTextField$getCursorField();
+        int selection = target.betterTextField$getSelectionField();
+        int start = anchor.getStart();
+        int end = anchor.getEnd();
+        int length = buffer.length();
+        int version = target.betterTextField$getVersion();
+        // 之后按下的粘贴排在这次粘贴后面，先按下的仍在原处
+        List<PasteAnchor> pastes = data.pendingPastes;
+        for (int i = index; i < pastes.size(); i++) {
+            pastes.get(i).behind = true;
+        }
+        target.betterTextField$setCursorField(end);
+        target.betterTextField$setSelectionField(start);
+        field.writeText(text);
+        for (int i = index; i < pastes.size(); i++) {
+            pastes.get(i).behind = false;
+        }
+        if (target.betterTextField$getVersion() == version) {
+            // 未通过校验或没有可写入的文字
+            field.setCursorPosition(cursor);
+            field.setSelectionPos(selection);
+            return;
+        }
+        int delta = buffer.length() - length;
+        field.setCursorPosition(afterPaste(cursor, start, end, delta));
+        field.setSelectionPos(afterPaste(selection, start, end, delta));
+    }
+
+    private static int afterPaste(int position, int start, int end, int delta) {
+        if (position < start) return position;
+        // 选区内的位置移到粘贴的文字之后
+        return Math.max(position, end) + delta;
+    }
+
+    /**
+     * 文本被 setText 或 setMaxStringLength 替换后，记下的选区已没有意义，放弃尚未写入的粘贴。
+     */
+    private static void cancelPastes(TextFieldData data, TextBuffer buffer) {
+        List<PasteAnchor> pastes = data.pendingPastes;
+        if (pastes == null) return;
+        for (int i = 0; i < pastes.size(); i++) {
+            buffer.removeListener(pastes.get(i));
+        }
+        pastes.clear();
+    }
+
+    /*
+    合并连发按键
+     */
+
+    /**
+     * 积攒一次连发的退格（step 为 -1）或 Delete（step 为 1），由调用者确认这是可以合并的键盘连发事件。
+     *
+     * @return 有选区时返回 false，此时应照常处理这次按键
+     */
+    public static boolean queueDelete(GuiTextField field, int step) {
+        Target target = target(field);
+        TextFieldData data = target.betterTextField$getData();
+        if (data.pendingDeletes != 0 && Integer.signum(data.pendingDeletes) != step) {
+            flushPending(field);
+        }
+        if (data.pendingDeletes == 0) {
+            // 有选区时删除的是选区，照常处理
+            if (target.betterTextField$getSelectionField() != target.betterTextField$getCursorField()) return false;
+            KeyRepeatBatch.add(target);
+        }
+        data.pendingDeletes += step;
+        return true;
+    }
+
+    /**
+     * 执行积攒的连发删除，之后的状态与逐个处理这些按键时相同。
+     */
+    public static void flushPending(GuiTextField field) {
+        Target target = target(field);
+        TextFieldData data = target.betterTextField$peekData();
+        if (data == null || data.pendingDeletes == 0) return;
+        int count = data.pendingDeletes;
+        data.pendingDeletes = 0;
+        KeyRepeatBatch.remove(target);
+        TextBuffer buffer = getBuffer(field);
+        // 原版在文本为空时什么也不做，也不通知 responder
+        if (buffer.length() == 0) return;
+        int cursorBefore = target.betterTextField$getCursorField();
+        int start = count < 0 ? Math.max(cursorBefore + count, 0) : cursorBefore;
+        int end = count < 0 ? cursorBefore : Math.min(cursorBefore + count, buffer.length());
+        String removed = buffer.substring(start, end);
+        if (count < 0) {
+            // 原版的滚动位置取决于每一步的文本和光标，所以光标仍逐步移动；缓冲区的单字符删除不生成字符串
+            for (int i = count; i < 0 && buffer.length() > 0; i++) {
+                int cursor = target.betterTextField$getCursorField();
+                if (cursor > 0) {
+                    buffer.delete(cursor - 1, cursor);
+                }
+                field.moveCursorBy(-1);
+            }
+        } else {
+            // 向后删除不移动光标，也不改变滚动位置
+            buffer.delete(start, end);
+        }
+        if (start != end) {
+            nextVersion(target);
+            fireChange(field, start, removed, "");
+        }
+        recordEdit(
+                field, count < 0 ? EditKind.BACKSPACE : EditKind.DELETE,
+                start, removed, "", cursorBefore, cursorBefore
+        );
+        target.betterTextField$notifyResponder();
+    }
+
+    /*
+    绘制
+     */
+
+    /**
+     * drawTextBox 开头调用 getVisible() 的地方，原版的全部绘制都在这个判断之内。
+     *
+     * @return 原版是否继续绘制
+     */
+    public static boolean onDrawTextBox(GuiTextField field, boolean visible) {
+        Target target = target(field);
+        TextFieldData data = target.betterTextField$peekData();
+        // 从未使用过的文本框直接交给原版，不做任何额外工作
+        if (data == null) return visible;
+        flushPending(field);
+        // 只有正在拖选的文本框需要平移，失去焦点时拖选已经结束
+        if (data.dragging && field.isFocused()) {
+            target.betterTextField$autoScroll(data);
+        }
+        // 已由缓存绘制或不可见时跳过原版的绘制
+        return !target.betterTextField$drawCached() && visible;
+    }
+
+    /**
+     * 按当前的文本、滚动位置与选区更新 {@link TextLayout}，内容没有变化时不做任何工作。
+     *
+     * @return 宽度无法由前缀和精确计算时为 null，由原版绘制
+     */
+    @Nullable
+    public static TextLayout updateLayout(GuiTextField field) {
+        WidthIndex index = getWidthIndex(field);
+        if (index == null) return null;
+        Target target = target(field);
+        TextBuffer buffer = getBuffer(field);
+        int offset = Math.min(target.betterTextField$getScrollField(), buffer.length());
+        TextLayout layout = target.betterTextField$getData().getLayout();
+        layout.update(buffer, index, offset, target.betterTextField$getCursorField(), target.betterTextField$getSelectionField(), field.getWidth());
+        return layout;
+    }
+}
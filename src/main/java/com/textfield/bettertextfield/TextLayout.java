@@ -0,0 +1,49 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.util.math.MathHelper;
+
+/**
+ * drawTextBox 每帧用到的可见文本与选区宽度，只在文本、滚动位置、光标、选区、宽度或字体变化时重新计算。
+ */
+public final class TextLayout {
+    private int textVersion = -1;
+    private int fontStamp = -1;
+    private int offset = -1;
+    private int width = -1;
+    private int cursor = -1;
+    private int selection = -1;
+
+    /// 当前可见的文本
+    public String visible = "";
+    /// 光标前的可见文本，光标不在可见范围内时为全部可见文本
+    public String beforeCursor = "";
+    /// 光标后的可见文本
+    public String afterCursor = "";
+    public boolean cursorInView;
+    /// 可见文本左边缘到选区另一端的宽度
+    public int selectionWidth;
+
+    public void update(TextBuffer buffer, WidthIndex index, int offset, int cursor, int selection, int width) {
+        boolean visibleChanged = buffer.getVersion() != this.textVersion || index.getFontStamp() != this.fontStamp
+                || offset != this.offset || width != this.width;
+        if (visibleChanged) {
+            this.textVersion = buffer.getVersion();
+            this.fontStamp = index.getFontStamp();
+            this.offset = offset;
+            this.width = width;
+            this.visible = buffer.substring(offset, index.trimEnd(offset, width));
+        }
+        if (visibleChanged || cursor != this.cursor) {
+            this.cursor = cursor;
+            int relative = cursor - offset;
+            this.cursorInView = relative >= 0 && relative <= this.visible.length();
+            this.beforeCursor = this.cursorInView ? this.visible.substring(0, relative) : this.visible;
+            this.afterCursor = this.cursorInView ? this.visible.substring(relative) : "";
+        }
+        if (visibleChanged || selection != this.selection) {
+            this.selection = selection;
+            int relative = MathHelper.clamp(selection - offset, 0, this.visible.length());
+            this.selectionWidth = index.width(offset, offset + relative);
+        }
+    }
+}
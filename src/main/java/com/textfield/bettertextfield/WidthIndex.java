@@ -0,0 +1,197 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.gui.FontRenderer;
+import net.minecraft.util.math.MathHelper;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 文本的字形宽度前缀和，用二分查找代替 {@link FontRenderer#trimStringToWidth(String, int)}。
+ * <p>
+ * 编辑只会让修改位置之后的前缀和失效，下次查询时从该位置开始补算。
+ * 文本含有格式化代码（§）、字体被替换或 OptiFine 改用浮点宽度时，宽度不再是逐字相加，
+ * 此时 {@link #update(CharSequence)} 返回 false，调用方应回退到原版实现。
+ */
+public final class WidthIndex implements TextBuffer.Listener {
+    private static final boolean FLOAT_WIDTHS = hasFloatWidths();
+    private static final Map<FontRenderer, int[]> ASCII_WIDTHS = new WeakHashMap<>();
+    private static int generation = 0;
+
+    private final FontRenderer fontRenderer;
+    /// prefix[i] 为前 i 个字符的宽度之和
+    private int[] prefix = new int[32];
+    /// prefix[0, validTo] 有效
+    private int validTo = 0;
+    private int length = 0;
+    /// 第一个格式化代码的位置，没有时为 -1
+    private int firstFormat = -1;
+    private int builtGeneration = -1;
+    private boolean builtUnicode;
+    /// 字形宽度（而非文本）改变时递增
+    private int fontStamp = 0;
+
+    public WidthIndex(FontRenderer fontRenderer) {
+        this.fontRenderer = fontRenderer;
+    }
+
+    public static boolean supports(FontRenderer fontRenderer) {
+        return fontRenderer.getClass() == FontRenderer.class && !FLOAT_WIDTHS;
+    }
+
+    /**
+     * 资源重载后字形宽度可能改变，丢弃所有缓存。
+     */
+    public static void invalidateAll() {
+        ASCII_WIDTHS.clear();
+        generation++;
+    }
+
+    @Override
+    public void onReplace(int offset, int removedLength, int insertedLength) {
+        this.validTo = Math.min(this.validTo, offset);
+    }
+
+    /**
+     * 使前缀和与文本同步。
+     *
+     * @return 前缀和能否精确代替原版的宽度计算
+     */
+    public boolean update(CharSequence text) {
+        boolean unicode = this.fontRenderer.getUnicodeFlag();
+        if (this.builtGeneration != generation || this.builtUnicode != unicode) {
+            this.builtGeneration = generation;
+            this.builtUnicode = unicode;
+            this.validTo = 0;
+            this.fontStamp++;
+        }
+        int length = text.length();
+        if (this.validTo > length) {
+            this.validTo = length;
+        }
+        if (this.validTo < length || this.length != length) {
+            if (this.prefix.length <= length) {
+                this.prefix = Arrays.copyOf(this.prefix, Math.max(this.prefix.length * 2, length + 1));
+            }
+            if (this.firstFormat >= this.validTo) {
+                this.firstFormat = -1;
+            }
+            int[] asciiWidths = this.asciiWidths(unicode);
+            int sum = this.prefix[this.validTo];
+            for (int i = this.validTo; i < length; i++) {
+                char c = text.charAt(i);
+                int width = c < 256 ? asciiWidths[c] : this.fontRenderer.getCharWidth(c);
+                if (width < 0) {
+                    if (this.firstFormat < 0) this.firstFormat = i;
+                    width = 0;
+                }
+                sum += width;
+                this.prefix[i + 1] = sum;
+            }
+            this.validTo = length;
+            this.length = length;
+        }
+        return this.firstFormat < 0 && supports(this.fontRenderer);
+    }
+
+    public int getFontStamp() {
+        return this.fontStamp;
+    }
+
+    public int width(int start, int end) {
+        return this.prefix[end] - this.prefix[start];
+    }
+
+    /**
+     * 等价于 {@code trimStringToWidth(text.substring(start), maxWidth).length() + start}。
+     */
+    public int trimEnd(int start, int maxWidth) {
+        int base = this.prefix[start];
+        int low = start;
+        int high = this.length;
+        // 最后一个满足 width(start, e) <= maxWidth 的 e
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (this.prefix[mid] - base <= maxWidth) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        // 原版在累计宽度已达到 maxWidth 时不再追加字符，包括零宽字符
+        while (low > start && this.prefix[low - 1] - base >= maxWidth) {
+            low--;
+        }
+        return low;
+    }
+
+    /**
+     * 等价于 {@code end - trimStringToWidth(text.substring(0, end), maxWidth, true).length()}。
+     */
+    public int trimStart(int end, int maxWidth) {
+        int base = this.prefix[end];
+        int low = 0;
+        int high = end;
+        // 第一个满足 width(s, end) <= maxWidth 的 s
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (base - this.prefix[mid] <= maxWidth) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        while (low < end && base - this.prefix[low + 1] >= maxWidth) {
+            low++;
+        }
+        return low;
+    }
+
+    /**
+     * 与原版 setSelectionPos 相同的滚动规则，只是宽度改由前缀和计算。
+     *
+     * @param offset   当前的 lineScrollOffset
+     * @param position 已限制在文本范围内的选区端点
+     * @param maxWidth 文本框的可见宽度
+     * @return 新的 lineScrollOffset
+     */
+    public int scrollTo(int offset, int position, int maxWidth) {
+        int length = this.length;
+        if (offset > length) {
+            offset = length;
+        }
+        int visibleEnd = this.trimEnd(offset, maxWidth);
+        if (position == offset) {
+            offset -= length - this.trimStart(length, maxWidth);
+        }
+        if (position > visibleEnd) {
+            offset += position - visibleEnd;
+        } else if (position <= offset) {
+            offset = position;
+        }
+        return MathHelper.clamp(offset, 0, length);
+    }
+
+    private int[] asciiWidths(boolean unicode) {
+        int[] widths = ASCII_WIDTHS.get(this.fontRenderer);
+        if (widths == null || widths[256] != (unicode ? 1 : 0)) {
+            widths = new int[257];
+            for (char c = 0; c < 256; c++) {
+                widths[c] = this.fontRenderer.getCharWidth(c);
+            }
+            widths[256] = unicode ? 1 : 0;
+            ASCII_WIDTHS.put(this.fontRenderer, widths);
+        }
+        return widths;
+    }
+
+    private static boolean hasFloatWidths() {
+        try {
+            FontRenderer.class.getMethod("getCharWidthFloat", char.class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
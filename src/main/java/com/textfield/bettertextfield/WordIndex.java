@@ -0,0 +1,163 @@
+package com.textfield.bettertextfield;
+
+import java.util.Arrays;
+
+/**
+ * 文本中所有连续空格段的有序列表，用二分查找回答原版 {@code getNthWordFromPosWS} 的查询。
+ * <p>
+ * 原版只把 ' ' 视为单词分隔符，这里保持一致。编辑时只重新扫描被修改的区域及与之相邻的空格段，
+ * 之后的空格段整体平移。
+ */
+public final class WordIndex implements TextBuffer.Listener {
+    private final CharSequence text;
+    /// 第 k 个空格段为 [starts[k], ends[k])
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int count = 0;
+    private boolean built = false;
+
+    public WordIndex(CharSequence text) {
+        this.text = text;
+    }
+
+    @Override
+    public void onReplace(int offset, int removedLength, int insertedLength) {
+        if (!this.built) return;
+        int delta = insertedLength - removedLength;
+        int removedEnd = offset + removedLength;
+        // 与修改区域重叠或相邻的空格段 [first, last]，它们可能被拆分或合并
+        int first = this.firstEndingAtOrAfter(offset);
+        int last = this.firstStartingAfter(removedEnd) - 1;
+        int low = offset;
+        int high = offset + insertedLength;
+        if (first <= last) {
+            low = Math.min(low, this.starts[first]);
+            if (this.ends[last] > removedEnd) {
+                high = this.ends[last] + delta;
+            }
+        }
+        int added = this.countRuns(low, high);
+        int removed = Math.max(last - first + 1, 0);
+        int tail = this.count - (first + removed);
+        this.ensureCapacity(this.count - removed + added);
+        System.arraycopy(this.starts, first + removed, this.starts, first + added, tail);
+        System.arraycopy(this.ends, first + removed, this.ends, first + added, tail);
+        for (int k = first + added; k < first + added + tail; k++) {
+            this.starts[k] += delta;
+            this.ends[k] += delta;
+        }
+        this.fillRuns(low, high, first);
+        this.count += added - removed;
+    }
+
+    /**
+     * 与原版 {@code getNthWordFromPosWS(n, pos, skipWs)} 的结果相同。
+     */
+    public int getNthWordFromPos(int n, int pos, boolean skipWs) {
+        this.ensureBuilt();
+        int length = this.text.length();
+        int i = pos;
+        boolean backwards = n < 0;
+        for (int step = Math.abs(n); step > 0; step--) {
+            if (!backwards) {
+                // 第一个不早于 i 的空格
+                int k = this.firstEndingAfter(i);
+                if (k == this.count) {
+                    i = length;
+                } else {
+                    i = skipWs ? this.ends[k] : Math.max(this.starts[k], i);
+                }
+            } else {
+                if (skipWs && i > 0) {
+                    int k = this.firstEndingAfter(i - 1);
+                    if (k < this.count && this.starts[k] <= i - 1) {
+                        i = this.starts[k];
+                    }
+                }
+                if (i > 0 && this.text.charAt(i - 1) != ' ') {
+                    // 最后一个结束位置不晚于 i 的空格段
+                    int k = this.firstEndingAfter(i) - 1;
+                    i = k >= 0 ? this.ends[k] : 0;
+                }
+            }
+        }
+        return i;
+    }
+
+    private void ensureBuilt() {
+        if (this.built) return;
+        int length = this.text.length();
+        int runs = this.countRuns(0, length);
+        this.ensureCapacity(runs);
+        this.fillRuns(0, length, 0);
+        this.count = runs;
+        this.built = true;
+    }
+
+    private int countRuns(int from, int to) {
+        int runs = 0;
+        for (int i = from; i < to; i++) {
+            if (this.text.charAt(i) == ' ' && (i == from || this.text.charAt(i - 1) != ' ')) {
+                runs++;
+            }
+        }
+        return runs;
+    }
+
+    private void fillRuns(int from, int to, int index) {
+        int i = from;
+        while (i < to) {
+            if (this.text.charAt(i) != ' ') {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < to && this.text.charAt(i) == ' ') {
+                i++;
+            }
+            this.starts[index] = start;
+            this.ends[index] = i;
+            index++;
+        }
+    }
+
+    private int firstEndingAfter(int pos) {
+        return this.firstEndingAtOrAfter(pos + 1);
+    }
+
+    private int firstEndingAtOrAfter(int pos) {
+        int low = 0;
+        int high = this.count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.ends[mid] < pos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int firstStartingAfter(int pos) {
+        int low = 0;
+        int high = this.count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.starts[mid] <= pos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (this.starts.length < capacity) {
+            int newCapacity = Math.max(this.starts.length * 2, capacity);
+            this.starts = Arrays.copyOf(this.starts, newCapacity);
+            this.ends = Arrays.copyOf(this.ends, newCapacity);
+        }
+    }
+}
@@ -1,15 +1,33 @@
 package com.textfield.bettertextfield.mixin.early;
 
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.llamalad7.mixinextras.injector.ModifyExpressionValue;
 import com.llamalad7.mixinextras.injector.wrapmethod.WrapMethod;
 import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
+import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
 import com.textfield.bettertextfield.ClientUtils;
-import com.textfield.bettertextfield.TextFieldState;
+import com.textfield.bettertextfield.ClipboardService;
+import com.textfield.bettertextfield.DragSelection;
+import com.textfield.bettertextfield.PasteAnchor;
+import com.textfield.bettertextfield.ResponderDebounce;
+import com.textfield.bettertextfield.Suggestion;
+import com.textfield.bettertextfield.SuggestionProvider;
+import com.textfield.bettertextfield.SuggestionState;
+import com.textfield.bettertextfield.TextChangeListener;
+import com.textfield.bettertextfield.TextFieldData;
+import com.textfield.bettertextfield.TextFieldExtension;
+import com.textfield.bettertextfield.TextFieldLogic;
+import com.textfield.bettertextfield.TextLayout;
+import com.textfield.bettertextfield.WidthIndex;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.FontRenderer;
+import net.minecraft.client.gui.Gui;
+import net.minecraft.client.gui.GuiPageButtonList;
+import net.minecraft.client.gui.GuiScreen;
 import net.minecraft.client.gui.GuiTextField;
-import net.minecraft.client.gui.ScaledResolution;
-import net.minecraft.util.math.MathHelper;
-import org.lwjgl.input.Mouse;
+import org.lwjgl.input.Keyboard;
+import org.objectweb.asm.Opcodes;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
@@ -21,10 +39,11 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 import javax.annotation.Nullable;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.List;
 
 @Mixin(GuiTextField.class)
-public class GuiTextFieldMixin {
+public class GuiTextFieldMixin implements TextFieldExtension, TextFieldLogic.Target, DragSelection.Target, ResponderDebounce.Target {
     @Final
     @Shadow
     @Nullable // 原版处理了 null
@@ -35,148 +54,546 @@ public class GuiTextFieldMixin {
     private int selectionEnd;
     @Shadow
     private boolean isEnabled;
+    @Shadow
+    private String text;
+    @Shadow
+    private int cursorPosition;
+    @Shadow
+    private GuiPageButtonList.GuiResponder guiResponder;
+    @Shadow
+    private Predicate<String> validator;
+    @Shadow
+    private boolean canLoseFocus;
+    @Shadow
+    private boolean isFocused;
+    @Shadow
+    private int cursorCounter;
+    @Shadow
+    private int enabledColor;
+    @Shadow
+    private int disabledColor;
+
+    @Shadow
+    private void drawSelectionBox(int startX, int startY, int endX, int endY) {
+    }
 
     /*
-    拖选实现
+    附加状态
      */
 
     @Unique
-    private boolean betterTextField$isDragging = false;
+    @Nullable // 首次获得焦点或首次编辑时才创建
+    private TextFieldData betterTextField$data;
+
+    @Override
+    @Nullable
+    public TextFieldData betterTextField$peekData() {
+        return this.betterTextField$data;
+    }
+
+    @Override
+    public TextFieldData betterTextField$getData() {
+        if (this.betterTextField$data == null) {
+            this.betterTextField$data = new TextFieldData();
+        }
+        return this.betterTextField$data;
+    }
+
     @Unique
-    private long betterTextField$lastScrollTime = 0L;
+    private int betterTextField$version = 0;
 
-    @Inject(method = "mouseClicked", at = @At("RETURN"))
-    private void injectDrag(int mouseX, int mouseY, int mouseButton, CallbackInfoReturnable<Boolean> cir) {
-        this.betterTextField$isDragging = cir.getReturnValue() && mouseButton == 0;
+    @Override
+    public int betterTextField$getVersion() {
+        return this.betterTextField$version;
     }
 
-    @Inject(method = "drawTextBox", at = @At("HEAD"))
-    private void onDrawTextBox(CallbackInfo ci) {
+    @Override
+    public void betterTextField$setVersion(int version) {
+        this.betterTextField$version = version;
+    }
+
+    @Override
+    public void betterTextField$addChangeListener(TextChangeListener listener) {
+        this.betterTextField$getData().addChangeListener(listener);
+    }
+
+    @Override
+    public void betterTextField$removeChangeListener(TextChangeListener listener) {
+        if (this.betterTextField$data != null) {
+            this.betterTextField$data.removeChangeListener(listener);
+        }
+    }
+
+    @Override
+    public void betterTextField$notifyResponder() {
         GuiTextField self = (GuiTextField) (Object) this;
-        if (this.betterTextField$isDragging && self.getVisible() && self.isFocused()) {
-            if (!Mouse.isButtonDown(0)) {
-                this.betterTextField$isDragging = false;
-                return;
-            }
-            if (this.fontRenderer == null) return;
-            Minecraft mc = Minecraft.getMinecraft();
-            ScaledResolution sr = new ScaledResolution(mc);
-            int mouseX = Mouse.getX() * sr.getScaledWidth() / mc.displayWidth;
-            int textX = self.x + (self.getEnableBackgroundDrawing() ? 4 : 0);
-            int textWidth = self.getWidth();
-            String fullText = self.getText();
-
-            // 拖拽平移
-            int offset = 0;
-            if (mouseX < textX) {
-                offset = -1;
-            } else if (mouseX > textX + textWidth && this.fontRenderer.getStringWidth(fullText.substring(this.lineScrollOffset)) > textWidth) {
-                offset = 1;
-            }
-            if (offset != 0) {
-                long now = Minecraft.getSystemTime();
-                if (now - this.betterTextField$lastScrollTime > 40L) {
-                    this.lineScrollOffset += offset;
-                    this.lineScrollOffset = MathHelper.clamp(this.lineScrollOffset, 0, fullText.length());
-                    this.betterTextField$lastScrollTime = now;
-                }
-            }
+        // 没有 responder 且未被子类重写时不必生成字符串
+        if (this.guiResponder == null && self.getClass() == GuiTextField.class) return;
+        TextFieldData data = this.betterTextField$data;
+        if (data != null && data.responderDebounceMillis > 0) {
+            data.responderDue = Minecraft.getSystemTime() + data.responderDebounceMillis;
+            ResponderDebounce.schedule(this);
+            return;
+        }
+        self.setResponderEntryValue(self.getId(), TextFieldLogic.getText(self));
+    }
 
-            // 拖选逻辑
-            // 截取从 lineScrollOffset 开始，且宽度不超过总宽度的子串，也就是当前可见的字符
-            String trimmed = this.fontRenderer.trimStringToWidth(fullText.substring(this.lineScrollOffset), textWidth);
-            // 截取鼠标到左边缘的字符
-            trimmed = this.fontRenderer.trimStringToWidth(trimmed, Math.max(0, mouseX - textX));
-            // 定下另一个锚点，第一个锚点是 cursorPosition，两点确定选区
-            this.selectionEnd = trimmed.length() + this.lineScrollOffset;
+    @Override
+    public void betterTextField$setResponderDebounce(int millis) {
+        TextFieldData data = this.betterTextField$getData();
+        data.responderDebounceMillis = Math.max(millis, 0);
+        if (millis <= 0) {
+            this.betterTextField$dispatchResponder(true);
         }
     }
 
-    @Inject(method = "setFocused", at = @At("RETURN"))
-    private void cleanUpSelection(boolean focused, CallbackInfo ci) {
-        if (!focused) {
-            GuiTextField self = (GuiTextField) (Object) this;
-            self.moveCursorBy(0); // 取消选中
+    @Override
+    public boolean betterTextField$dispatchResponder(boolean force) {
+        TextFieldData data = this.betterTextField$data;
+        if (data == null || data.responderDue == 0L) return false;
+        if (!force && Minecraft.getSystemTime() < data.responderDue) return true;
+        data.responderDue = 0L;
+        GuiTextField self = (GuiTextField) (Object) this;
+        self.setResponderEntryValue(self.getId(), TextFieldLogic.getText(self));
+        // responder 中可能又修改了文本
+        return data.responderDue != 0L;
+    }
+
+    @Override
+    public void betterTextField$setSuggestionProvider(@Nullable SuggestionProvider provider) {
+        TextFieldData data = this.betterTextField$getData();
+        if (data.suggestions != null) {
+            data.suggestions.cancel();
         }
+        data.suggestions = provider != null ? new SuggestionState((GuiTextField) (Object) this, provider) : null;
+    }
+
+    @Override
+    public List<Suggestion> betterTextField$getSuggestions() {
+        TextFieldData data = this.betterTextField$data;
+        return data != null && data.suggestions != null ? data.suggestions.getSuggestions() : Collections.emptyList();
     }
 
     /*
-    撤销/重做实现
+    原版字段，由 TextFieldLogic 读写
      */
 
-    @Unique
-    private static final int MAX_HISTORY_SIZE = 50;
+    @Override
+    public String betterTextField$getTextField() {
+        return this.text;
+    }
 
-    @Unique
-    private final LinkedList<TextFieldState> betterTextField$undoStack = new LinkedList<>();
-    @Unique
-    private final LinkedList<TextFieldState> betterTextField$redoStack = new LinkedList<>();
-    @Unique
-    private boolean betterTextField$isRestoring = false;
+    @Override
+    public void betterTextField$setTextField(String text) {
+        this.text = text;
+    }
 
-    @Unique
-    private void betterTextField$saveHistory() {
-        if (this.betterTextField$isRestoring) return;
-        if (this.betterTextField$undoStack.size() >= MAX_HISTORY_SIZE) {
-            this.betterTextField$undoStack.removeFirst();
+    @Override
+    public int betterTextField$getCursorField() {
+        return this.cursorPosition;
+    }
+
+    @Override
+    public void betterTextField$setCursorField(int cursorPosition) {
+        this.cursorPosition = cursorPosition;
+    }
+
+    @Override
+    public int betterTextField$getSelectionField() {
+        return this.selectionEnd;
+    }
+
+    @Override
+    public void betterTextField$setSelectionField(int selectionEnd) {
+        this.selectionEnd = selectionEnd;
+    }
+
+    @Override
+    public int betterTextField$getScrollField() {
+        return this.lineScrollOffset;
+    }
+
+    @Override
+    public void betterTextField$setScrollField(int lineScrollOffset) {
+        this.lineScrollOffset = lineScrollOffset;
+    }
+
+    @Override
+    public Predicate<String> betterTextField$getValidator() {
+        return this.validator;
+    }
+
+    @Override
+    @Nullable
+    public FontRenderer betterTextField$getFontRenderer() {
+        return this.fontRenderer;
+    }
+
+    @Override
+    public boolean betterTextField$isEnabled() {
+        return this.isEnabled;
+    }
+
+    @Override
+    public boolean betterTextField$canLoseFocus() {
+        return this.canLoseFocus;
+    }
+
+    /*
+    接管原版方法，实现在 TextFieldLogic 中
+     */
+
+    /**
+     * 原版方法读取 text 时先执行尚未执行的连发删除，并由缓冲区生成最新的文本。
+     */
+    @ModifyExpressionValue(
+            method = {
+                    "getText", "getSelectedText", "writeText", "deleteWords", "deleteFromCursor",
+                    "getNthWordFromPosWS", "setCursorPosition", "setCursorPositionEnd", "textboxKeyTyped",
+                    "mouseClicked", "drawTextBox", "setMaxStringLength", "setSelectionPos"
+            },
+            at = @At(
+                    value = "FIELD",
+                    target = "Lnet/minecraft/client/gui/GuiTextField;text:Ljava/lang/String;",
+                    opcode = Opcodes.GETFIELD
+            )
+    )
+    private String readText(String original) {
+        return TextFieldLogic.readText((GuiTextField) (Object) this);
+    }
+
+    @WrapOperation(
+            method = {"setText", "setMaxStringLength"},
+            at = @At(
+                    value = "FIELD",
+                    target = "Lnet/minecraft/client/gui/GuiTextField;text:Ljava/lang/String;",
+                    opcode = Opcodes.PUTFIELD
+            )
+    )
+    private void wrapWriteText(GuiTextField instance, String value, Operation<Void> original) {
+        String previous = this.text;
+        original.call(instance, value);
+        TextFieldLogic.onTextAssigned(instance, previous, value);
+    }
+
+    @WrapMethod(method = "writeText")
+    private void takeOverWriteText(String textToWrite, Operation<Void> original) {
+        TextFieldLogic.writeText((GuiTextField) (Object) this, textToWrite);
+    }
+
+    @WrapMethod(method = "deleteFromCursor")
+    private void takeOverDeleteFromCursor(int num, Operation<Void> original) {
+        TextFieldLogic.deleteFromCursor((GuiTextField) (Object) this, num);
+    }
+
+    @WrapMethod(method = "setCursorPosition")
+    private void takeOverSetCursorPosition(int pos, Operation<Void> original) {
+        TextFieldLogic.setCursorPosition((GuiTextField) (Object) this, pos);
+    }
+
+    @WrapMethod(method = "setSelectionPos")
+    private void takeOverSetSelectionPos(int position, Operation<Void> original) {
+        if (!TextFieldLogic.setSelectionPos((GuiTextField) (Object) this, position)) {
+            original.call(position);
         }
-        GuiTextField self = (GuiTextField) (Object) this;
-        this.betterTextField$undoStack.addLast(new TextFieldState(self));
-        this.betterTextField$redoStack.clear();
     }
 
-    @Unique
-    private void betterTextField$performUndo() {
-        if (!this.betterTextField$undoStack.isEmpty()) {
-            this.betterTextField$isRestoring = true;
-            GuiTextField self = (GuiTextField) (Object) this;
-            this.betterTextField$redoStack.addLast(new TextFieldState(self));
-            TextFieldState previousState = this.betterTextField$undoStack.removeLast();
-            previousState.writeTo(self);
-            this.betterTextField$isRestoring = false;
+    @WrapMethod(method = "getNthWordFromPosWS")
+    private int takeOverGetNthWordFromPosWS(int n, int pos, boolean skipWs, Operation<Integer> original) {
+        int result = TextFieldLogic.getNthWordFromPosWS((GuiTextField) (Object) this, n, pos, skipWs);
+        return result >= 0 ? result : original.call(n, pos, skipWs);
+    }
+
+    @WrapMethod(method = "setCursorPositionEnd")
+    private void takeOverSetCursorPositionEnd(Operation<Void> original) {
+        TextFieldLogic.setCursorPositionEnd((GuiTextField) (Object) this);
+    }
+
+    /*
+    拖选实现
+     */
+
+    @WrapMethod(method = "mouseClicked")
+    private boolean injectDrag(int mouseX, int mouseY, int mouseButton, Operation<Boolean> original) {
+        boolean clicked = this.fontRenderer != null
+                ? TextFieldLogic.mouseClicked((GuiTextField) (Object) this, mouseX, mouseY, mouseButton)
+                : original.call(mouseX, mouseY, mouseButton);
+        if (clicked && mouseButton == 0) {
+            TextFieldData data = this.betterTextField$getData();
+            data.dragging = true;
+            data.dragMouseX = mouseX;
+            data.lastScrollTime = 0L;
+            data.scrollRemainder = 0.0F;
+            DragSelection.begin(this);
+        } else {
+            this.betterTextField$endDrag();
         }
+        return clicked;
     }
 
+    @Override
+    public void betterTextField$dragTo(int mouseX) {
+        TextFieldData data = this.betterTextField$data;
+        if (data == null || !data.dragging) return;
+        this.betterTextField$flushPending();
+        data.dragMouseX = mouseX;
+        this.betterTextField$updateDragSelection(data);
+    }
+
+    @Override
+    public void betterTextField$endDrag() {
+        if (this.betterTextField$data != null) {
+            this.betterTextField$data.dragging = false;
+        }
+        DragSelection.end(this);
+    }
+
+    /**
+     * 定下另一个锚点，第一个锚点是 cursorPosition，两点确定选区。
+     */
+    @Unique
+    private void betterTextField$updateDragSelection(TextFieldData data) {
+        GuiTextField self = (GuiTextField) (Object) this;
+        if (this.fontRenderer == null || !self.getVisible() || !this.isFocused) return;
+        int textX = self.x + (self.getEnableBackgroundDrawing() ? 4 : 0);
+        this.selectionEnd = TextFieldLogic.hitTest(self, Math.max(0, data.dragMouseX - textX));
+    }
+
+    @Unique
+    private static final int AUTO_SCROLL_MIN_SPEED = 60;
     @Unique
-    private void betterTextField$performRedo() {
-        if (!this.betterTextField$redoStack.isEmpty()) {
-            this.betterTextField$isRestoring = true;
-            GuiTextField self = (GuiTextField) (Object) this;
-            this.betterTextField$undoStack.addLast(new TextFieldState(self));
-            TextFieldState nextState = this.betterTextField$redoStack.removeLast();
-            nextState.writeTo(self);
-            this.betterTextField$isRestoring = false;
+    private static final int AUTO_SCROLL_SPEED_PER_PIXEL = 32;
+
+    /**
+     * 鼠标停在文本框外时即使没有移动也要继续平移，因此每帧检查一次。
+     * 平移速度（像素每秒）与鼠标超出边缘的距离成正比，按经过的时间而非帧数推进。
+     */
+    @Override
+    public void betterTextField$autoScroll(TextFieldData data) {
+        GuiTextField self = (GuiTextField) (Object) this;
+        if (this.fontRenderer == null || !self.getVisible()) return;
+        int textX = self.x + (self.getEnableBackgroundDrawing() ? 4 : 0);
+        int textWidth = self.getWidth();
+        int overshoot = data.dragMouseX < textX ? data.dragMouseX - textX : Math.max(data.dragMouseX - (textX + textWidth), 0);
+        long now = Minecraft.getSystemTime();
+        if (overshoot == 0) {
+            data.lastScrollTime = 0L;
+            data.scrollRemainder = 0.0F;
+            return;
+        }
+        if (data.lastScrollTime == 0L) {
+            data.lastScrollTime = now;
+            return;
+        }
+        // 卡顿后不要一次跳得太远
+        long elapsed = Math.min(now - data.lastScrollTime, 100L);
+        data.lastScrollTime = now;
+        data.scrollRemainder += (AUTO_SCROLL_MIN_SPEED + Math.abs(overshoot) * AUTO_SCROLL_SPEED_PER_PIXEL) * elapsed / 1000.0F;
+
+        WidthIndex index = TextFieldLogic.getWidthIndex(self);
+        int length = TextFieldLogic.getLength(self);
+        int offset = Math.min(this.lineScrollOffset, length);
+        if (overshoot < 0) {
+            while (offset > 0) {
+                int width = this.betterTextField$getCharWidth(index, offset - 1);
+                if (width > data.scrollRemainder) break;
+                data.scrollRemainder -= width;
+                offset--;
+            }
+            if (offset == 0) {
+                data.scrollRemainder = 0.0F;
+            }
+        } else {
+            // 与原版相同，文本末尾进入可见范围后不再向右平移
+            int remaining = TextFieldLogic.getWidthAfterScroll(self);
+            while (offset < length && remaining > textWidth) {
+                int width = this.betterTextField$getCharWidth(index, offset);
+                if (width > data.scrollRemainder) break;
+                data.scrollRemainder -= width;
+                remaining -= width;
+                offset++;
+            }
+            if (remaining <= textWidth) {
+                data.scrollRemainder = 0.0F;
+            }
+        }
+        if (offset != this.lineScrollOffset) {
+            this.lineScrollOffset = offset;
+            this.betterTextField$updateDragSelection(data);
         }
     }
 
-    @Inject(method = "writeText", at = @At("HEAD"))
-    private void onWriteText(String textToWrite, CallbackInfo ci) {
-        this.betterTextField$saveHistory();
+    /**
+     * 第 i 个字符的宽度，有前缀和时直接取差值。
+     */
+    @Unique
+    private int betterTextField$getCharWidth(@Nullable WidthIndex index, int i) {
+        if (index != null) return index.width(i, i + 1);
+        return Math.max(this.fontRenderer.getCharWidth(TextFieldLogic.getBuffer((GuiTextField) (Object) this).charAt(i)), 0);
     }
 
-    @Inject(method = "deleteFromCursor", at = @At("HEAD"))
-    private void onDeleteFromCursor(int num, CallbackInfo ci) {
-        this.betterTextField$saveHistory();
+    @Inject(method = "setFocused", at = @At("RETURN"))
+    private void cleanUpSelection(boolean focused, CallbackInfo ci) {
+        GuiTextField self = (GuiTextField) (Object) this;
+        TextFieldLogic.flushPending(self);
+        ClipboardService.onFocusChanged(self, focused);
+        if (!focused) {
+            this.betterTextField$endDrag();
+            this.betterTextField$dispatchResponder(true);
+            if (this.betterTextField$data != null && this.betterTextField$data.suggestions != null) {
+                this.betterTextField$data.suggestions.cancel();
+            }
+        }
+        TextFieldLogic.onFocusChanged(self, focused);
     }
 
-    @Inject(method = "deleteWords", at = @At("HEAD"))
-    private void onDeleteWords(int num, CallbackInfo ci) {
-        this.betterTextField$saveHistory();
+    /*
+    异步剪贴板
+     */
+
+    /**
+     * 与原版的 Ctrl+C/V/X 行为相同，只是剪贴板的读写交给 {@link ClipboardService}。
+     *
+     * @return 按键是否已被处理
+     */
+    @Unique
+    private boolean betterTextField$handleClipboard(int keyCode) {
+        GuiTextField self = (GuiTextField) (Object) this;
+        if (GuiScreen.isKeyComboCtrlC(keyCode)) {
+            ClipboardService.write(self.getSelectedText());
+        } else if (GuiScreen.isKeyComboCtrlV(keyCode)) {
+            if (this.isEnabled) {
+                // 剪贴板读好之前输入的文字排在粘贴之后
+                PasteAnchor anchor = TextFieldLogic.beginPaste(self);
+                ClipboardService.read(text -> TextFieldLogic.paste(self, anchor, text));
+            }
+        } else if (GuiScreen.isKeyComboCtrlX(keyCode)) {
+            ClipboardService.write(self.getSelectedText());
+            if (this.isEnabled) {
+                self.writeText("");
+            }
+        } else {
+            return false;
+        }
+        return true;
     }
 
     @Inject(method = "textboxKeyTyped", at = @At("HEAD"), cancellable = true)
     private void injectUndoAndRedoStack(char typedChar, int keyCode, CallbackInfoReturnable<Boolean> cir) {
         GuiTextField self = (GuiTextField) (Object) this;
-        if (!self.isFocused() || !this.isEnabled) return;
-        if (ClientUtils.isKeyComboCtrlZ(keyCode)) {
-            this.betterTextField$performUndo();
+        if (this.betterTextField$queueRepeatedDelete(keyCode)) {
+            cir.setReturnValue(true);
+            return;
+        }
+        TextFieldLogic.flushPending(self);
+        if (!self.isFocused()) return;
+        if (this.betterTextField$handleClipboard(keyCode)) {
+            cir.setReturnValue(true);
+            return;
+        }
+        if (!this.isEnabled) return;
+        TextFieldData data = this.betterTextField$data;
+        // 原版不接受 Tab，只有设置了补全的文本框才占用它
+        if (data != null && data.suggestions != null && ClientUtils.isKeyPlainTab(keyCode)) {
+            data.suggestions.complete();
+            cir.setReturnValue(true);
+        } else if (ClientUtils.isKeyComboCtrlZ(keyCode)) {
+            TextFieldLogic.undo(self);
             cir.cancel();
         } else if (ClientUtils.isKeyComboCtrlY(keyCode)) {
-            this.betterTextField$performRedo();
+            TextFieldLogic.redo(self);
             cir.cancel();
         }
     }
 
+    /*
+    合并连发按键
+     */
+
+    /**
+     * 卡顿时按住退格或 Delete 会在同一帧内收到大量连发事件。这些事件先只计数，
+     * 等文本框被读取、修改、绘制或本 tick 结束时一次性执行：只生成一次字符串、记录一条历史、通知一次 responder。
+     * <p>
+     * 只在默认 validator 下合并，因为每一步都必然通过校验；子类可能重写了相关方法，也不合并。
+     */
+    @Unique
+    private boolean betterTextField$queueRepeatedDelete(int keyCode) {
+        if (keyCode != Keyboard.KEY_BACK && keyCode != Keyboard.KEY_DELETE) return false;
+        if (this.betterTextField$data == null || !this.isFocused || !this.isEnabled || GuiScreen.isCtrlKeyDown()) return false;
+        GuiTextField self = (GuiTextField) (Object) this;
+        if (self.getClass() != GuiTextField.class || this.validator != Predicates.<String>alwaysTrue()) return false;
+        // 只合并来自键盘的连发事件，其他 mod 直接调用 textboxKeyTyped 时照常处理
+        if (!Keyboard.isRepeatEvent() || Keyboard.getEventKey() != keyCode || !Keyboard.getEventKeyState()) return false;
+        return TextFieldLogic.queueDelete(self, keyCode == Keyboard.KEY_BACK ? -1 : 1);
+    }
+
+    @Override
+    public void betterTextField$flushPending() {
+        TextFieldLogic.flushPending((GuiTextField) (Object) this);
+    }
+
+    /**
+     * 读取光标前先执行连发删除。修改读到的值而不是在方法开头注入，getCursorPosition 等频繁调用的方法不会每次分配 CallbackInfo。
+     * 读取 text 的方法由 {@link #readText} 处理，被接管的方法自己会先执行。
+     */
+    @ModifyExpressionValue(
+            method = {"getCursorPosition", "getSelectedText", "deleteWords"},
+            at = @At(
+                    value = "FIELD",
+                    target = "Lnet/minecraft/client/gui/GuiTextField;cursorPosition:I",
+                    opcode = Opcodes.GETFIELD
+            )
+    )
+    private int readCursorPosition(int original) {
+        this.betterTextField$flushPending();
+        return this.cursorPosition;
+    }
+
+    @ModifyExpressionValue(
+            method = {"getSelectionEnd", "getSelectedText", "deleteWords", "moveCursorBy"},
+            at = @At(
+                    value = "FIELD",
+                    target = "Lnet/minecraft/client/gui/GuiTextField;selectionEnd:I",
+                    opcode = Opcodes.GETFIELD
+            )
+    )
+    private int readSelectionEnd(int original) {
+        this.betterTextField$flushPending();
+        return this.selectionEnd;
+    }
+
+    /**
+     * 连发删除只在可编辑时排队，要在禁用之前执行。
+     */
+    @WrapOperation(
+            method = "setEnabled",
+            at = @At(
+                    value = "FIELD",
+                    target = "Lnet/minecraft/client/gui/GuiTextField;isEnabled:Z",
+                    opcode = Opcodes.PUTFIELD
+            )
+    )
+    private void wrapWriteEnabled(GuiTextField instance, boolean value, Operation<Void> original) {
+        this.betterTextField$flushPending();
+        original.call(instance, value);
+    }
+
+    /**
+     * 连发删除只在默认 validator 下排队，要在更换之前执行。
+     */
+    @WrapOperation(
+            method = "setValidator",
+            at = @At(
+                    value = "FIELD",
+                    target = "Lnet/minecraft/client/gui/GuiTextField;validator:Lcom/google/common/base/Predicate;",
+                    opcode = Opcodes.PUTFIELD
+            )
+    )
+    private void wrapWriteValidator(GuiTextField instance, Predicate<String> value, Operation<Void> original) {
+        this.betterTextField$flushPending();
+        original.call(instance, value);
+    }
+
     /*
     补全原版缺失的 respond
      */
@@ -184,21 +601,94 @@ public class GuiTextFieldMixin {
     @WrapMethod(method = "setText")
     private void addSetTextRespond(String textIn, Operation<Void> original) {
         GuiTextField self = (GuiTextField) (Object) this;
-        String previousText = self.getText();
+        int previousVersion = TextFieldLogic.beforeExternalChange(self);
         original.call(textIn);
-        if (!self.getText().equals(previousText)) {
-            self.setResponderEntryValue(self.getId(), self.getText());
-        }
+        TextFieldLogic.afterExternalChange(self, previousVersion);
     }
 
     @WrapMethod(method = "setMaxStringLength")
     private void addTrimRespond(int length, Operation<Void> original) {
         GuiTextField self = (GuiTextField) (Object) this;
-        String previousText = self.getText();
+        int previousVersion = TextFieldLogic.beforeExternalChange(self);
         original.call(length);
-        if (!self.getText().equals(previousText)) {
-            self.setResponderEntryValue(self.getId(), self.getText());
+        TextFieldLogic.afterExternalChange(self, previousVersion);
+    }
+
+    /*
+    绘制缓存
+     */
+
+    /**
+     * 原版 drawTextBox 的全部内容都在 {@code if (this.getVisible())} 之内，在这里接管绘制。
+     * 只修改这一次调用的结果而不包装整个方法，从未使用过的文本框每帧不会多分配任何对象。
+     */
+    @ModifyExpressionValue(
+            method = "drawTextBox",
+            at = @At(
+                    value = "INVOKE",
+                    target = "Lnet/minecraft/client/gui/GuiTextField;getVisible()Z"
+            )
+    )
+    private boolean onDrawTextBox(boolean visible) {
+        return TextFieldLogic.onDrawTextBox((GuiTextField) (Object) this, visible);
+    }
+
+    /**
+     * 与原版 drawTextBox 绘制相同的内容，但可见文本、光标两侧的文本和选区宽度取自 {@link TextLayout}。
+     */
+    @Override
+    public boolean betterTextField$drawCached() {
+        GuiTextField self = (GuiTextField) (Object) this;
+        if (!self.getVisible()) return true;
+        TextLayout layout = TextFieldLogic.updateLayout(self);
+        if (layout == null) return false;
+        int length = TextFieldLogic.getLength(self);
+        int offset = Math.min(this.lineScrollOffset, length);
+
+        boolean background = self.getEnableBackgroundDrawing();
+        if (background) {
+            Gui.drawRect(self.x - 1, self.y - 1, self.x + self.width + 1, self.y + self.height + 1, this.modifyBoarderColor(-6250336));
+            Gui.drawRect(self.x, self.y, self.x + self.width, self.y + self.height, -16777216);
+        }
+
+        int color = this.isEnabled ? this.enabledColor : this.disabledColor;
+        int cursor = this.cursorPosition - offset;
+        int selection = this.selectionEnd - offset;
+        boolean showCursor = this.isFocused && this.cursorCounter / 6 % 2 == 0 && layout.cursorInView;
+        int textX = background ? self.x + 4 : self.x;
+        int textY = background ? self.y + (self.height - 8) / 2 : self.y;
+        int endX = textX;
+
+        if (!layout.visible.isEmpty()) {
+            endX = this.fontRenderer.drawStringWithShadow(layout.beforeCursor, (float) textX, (float) textY, color);
+        }
+
+        boolean verticalCursor = this.cursorPosition < length || length >= self.getMaxStringLength();
+        int cursorX = endX;
+        if (!layout.cursorInView) {
+            cursorX = cursor > 0 ? textX + self.width : textX;
+        } else if (verticalCursor) {
+            cursorX = endX - 1;
+            --endX;
+        }
+
+        if (!layout.afterCursor.isEmpty()) {
+            this.fontRenderer.drawStringWithShadow(layout.afterCursor, (float) endX, (float) textY, color);
         }
+
+        if (showCursor) {
+            if (verticalCursor) {
+                Gui.drawRect(cursorX, textY - 1, cursorX + 1, textY + 1 + this.fontRenderer.FONT_HEIGHT, -3092272);
+            } else {
+                this.fontRenderer.drawStringWithShadow("_", (float) cursorX, (float) textY, color);
+            }
+        }
+
+        if (Math.min(selection, layout.visible.length()) != cursor) {
+            int selectionX = textX + layout.selectionWidth;
+            this.drawSelectionBox(cursorX, textY - 1, selectionX - 1, textY + 1 + this.fontRenderer.FONT_HEIGHT);
+        }
+        return true;
     }
 
     /*
@@ -215,7 +705,6 @@ public class GuiTextFieldMixin {
             index = 4
     )
     private int modifyBoarderColor(int originalColor) {
-        GuiTextField self = (GuiTextField) (Object) this;
-        return self.isFocused() ? 0xFFFFFFFF : originalColor;
+        return this.isFocused ? 0xFFFFFFFF : originalColor;
     }
 }
@@ -0,0 +1,177 @@
+package com.textfield.bettertextfield;
+
+import com.google.common.base.Predicates;
+import net.minecraft.client.gui.FontRenderer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 热路径在当前线程上分配的字节数，由 {@code ThreadMXBean.getThreadAllocatedBytes} 统计，先预热再测量。
+ * 光标移动与没有变化的重绘不应分配任何对象。
+ * GuiTextFieldMixin 中的包装与 GL 绘制只能在游戏中运行，不在这里测量。
+ */
+public class AllocationBudgetTest {
+    private static final int WARMUP = 20000;
+    private static final int ITERATIONS = 10000;
+    private static final int ROUNDS = 3;
+    private static final int LENGTH = 32500;
+    private static final int WIDTH = 192;
+
+    private final int idleMillis = BetterTextFieldConfig.undoGroupIdleMillis;
+    private com.sun.management.ThreadMXBean threads;
+
+    private FontRenderer fontRenderer;
+    private TextBuffer buffer;
+    private WidthIndex widthIndex;
+    private WordIndex wordIndex;
+
+    @BeforeEach
+    public void setUp() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported(),
+                "the JVM does not report per-thread allocation");
+        this.threads = (com.sun.management.ThreadMXBean) bean;
+        this.threads.setThreadAllocatedMemoryEnabled(true);
+        // 测量期间按键间隔不固定，合并与否不能取决于运行速度
+        BetterTextFieldConfig.undoGroupIdleMillis = Integer.MAX_VALUE;
+
+        this.fontRenderer = TestFonts.fixedWidth(6);
+        this.buffer = new TextBuffer(words(LENGTH));
+        this.widthIndex = new WidthIndex(this.fontRenderer);
+        this.buffer.addListener(this.widthIndex);
+        this.wordIndex = new WordIndex(this.buffer);
+        this.buffer.addListener(this.wordIndex);
+        assertTrue(this.widthIndex.update(this.buffer));
+    }
+
+    @AfterEach
+    public void restoreConfig() {
+        BetterTextFieldConfig.undoGroupIdleMillis = this.idleMillis;
+    }
+
+    @Test
+    public void typing() {
+        EditHistory history = new EditHistory(50);
+        int[] cursor = {this.buffer.length() / 2};
+        // FieldEdit 本身，以及缓冲区、前缀和与合并中的文本按倍数扩容的均摊
+        this.assertBudget(64, i -> {
+            int before = cursor[0];
+            FieldEdit edit = FieldEdit.write(this.buffer, before, before, Integer.MAX_VALUE, Predicates.alwaysTrue(), "a");
+            assertNotNull(edit);
+            cursor[0] = before + 1;
+            history.push(EditKind.INSERT, edit.getOffset(), edit.getRemoved(), edit.getInserted(),
+                    before, before, cursor[0], cursor[0], false);
+            this.widthIndex.update(this.buffer);
+        });
+    }
+
+    @Test
+    public void holdingBackspace() {
+        EditHistory history = new EditHistory(50);
+        int[] cursor = {this.buffer.length()};
+        // FieldEdit 与被删除的单个字符
+        this.assertBudget(128, i -> {
+            int before = cursor[0];
+            FieldEdit edit = FieldEdit.delete(this.buffer, before, -1, Predicates.alwaysTrue());
+            assertNotNull(edit);
+            cursor[0] = before - 1;
+            history.push(EditKind.BACKSPACE, edit.getOffset(), edit.getRemoved(), edit.getInserted(),
+                    before, before, cursor[0], cursor[0], false);
+            this.widthIndex.update(this.buffer);
+        });
+        history.undo(this.buffer, null);
+        assertEquals(LENGTH, this.buffer.length());
+    }
+
+    @Test
+    public void cursorMove() {
+        int[] scroll = {0};
+        this.assertBudget(0, i -> {
+            int position = (int) ((i * 7919L) % (LENGTH + 1));
+            assertTrue(this.widthIndex.update(this.buffer));
+            scroll[0] = this.widthIndex.scrollTo(scroll[0], position, WIDTH);
+            this.wordIndex.getNthWordFromPos((i & 1) == 0 ? 1 : -1, position, true);
+        });
+    }
+
+    @Test
+    public void undoAndRedo() {
+        EditHistory history = new EditHistory(50);
+        int offset = LENGTH / 2;
+        this.buffer.insert(offset, "word ");
+        history.push(EditKind.OTHER, offset, "", "word ", offset, offset, offset + 5, offset + 5, false);
+        // 套用已有的记录只复制字符
+        this.assertBudget(0, i -> {
+            if ((i & 1) == 0) {
+                history.undo(this.buffer, null);
+            } else {
+                history.redo(this.buffer, null);
+            }
+            this.widthIndex.update(this.buffer);
+        });
+    }
+
+    @Test
+    public void idleRedraw() {
+        TextFieldData data = new TextFieldData();
+        String text = this.buffer.toString();
+        TextBuffer buffer = data.getBuffer(text);
+        WidthIndex index = data.getWidthIndex(this.fontRenderer, text);
+        assertNotNull(index);
+        int cursor = LENGTH / 2;
+        int offset = index.scrollTo(0, cursor, WIDTH);
+        this.assertBudget(0, i -> {
+            // 与 drawCached 每帧的调用相同
+            WidthIndex current = data.getWidthIndex(this.fontRenderer, text);
+            data.getLayout().update(data.getBuffer(text), current, offset, cursor, cursor, WIDTH);
+        });
+        assertEquals(buffer, data.getBuffer(text));
+    }
+
+    /**
+     * 预热后执行 {@link #ITERATIONS} 次，检查这期间分配的总字节数。
+     * 其他测试类先运行时，测量期间可能发生一次去优化，解释执行时会分配对象，因此超出预算时再测量几轮。
+     */
+    private void assertBudget(long bytesPerOperation, IntConsumer operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.accept(i);
+        }
+        long thread = Thread.currentThread().getId();
+        long budget = bytesPerOperation * ITERATIONS;
+        long bytes = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS && bytes > budget; round++) {
+            long start = this.threads.getThreadAllocatedBytes(thread);
+            // 查询本身的开销
+            long overhead = this.threads.getThreadAllocatedBytes(thread) - start;
+            start += overhead;
+            int first = WARMUP + round * ITERATIONS;
+            for (int i = first; i < first + ITERATIONS; i++) {
+                operation.accept(i);
+            }
+            bytes = Math.min(bytes, this.threads.getThreadAllocatedBytes(thread) - start - overhead);
+        }
+        long least = bytes;
+        assertTrue(least <= budget,
+                () -> least + " bytes over " + ITERATIONS + " operations, budget " + bytesPerOperation + " per operation");
+    }
+
+    private static String words(int length) {
+        Random random = new Random(0L);
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append(random.nextInt(8) == 0 ? ' ' : (char) ('a' + random.nextInt(26)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,657 @@
+package com.textfield.bettertextfield;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import net.minecraft.client.gui.FontRenderer;
+import net.minecraft.client.gui.GuiTextField;
+import net.minecraft.client.gui.GuiTextFieldOrig;
+import net.minecraft.util.ChatAllowedCharacters;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 随机操作序列的差分测试：{@link PatchedTextField} 运行 GuiTextFieldMixin 调用的 {@link TextFieldLogic}，
+ * 每一步都与原版的副本 {@link GuiTextFieldOrig} 比较文本、光标、选区与滚动位置。
+ * 失败时逐段删去操作，报告种子与仍然失败的最短序列。
+ * <p>
+ * 原版没有撤销，不合并时以每一步的文本快照为准；合并时只能检查撤销结果是出现过的文本。
+ * 每个序列不超过历史容量，不会丢弃最旧的记录。设置了监听器时，还检查收到的修改能否重建文本，
+ * 以及通知时光标是否已经在最终位置。
+ */
+public class DifferentialFuzzTest {
+    private static final int SEQUENCES = 2000;
+    /// 小于 TextFieldData 中的历史容量 50
+    private static final int MAX_OPS = 40;
+    /// § 与 U+007F 会被 writeText 过滤，U+0300 宽度为 0
+    private static final String TYPED = "ab  1W\u00e9\u0300§\u007f";
+    /// setText 不过滤，含 § 时宽度不能逐字相加，不在这里测试
+    private static final String SET = "ab  1W\u00e9\u0300";
+    private static final Predicate<String> NO_DIGITS = s -> s.chars().noneMatch(Character::isDigit);
+
+    private final int idleMillis = BetterTextFieldConfig.undoGroupIdleMillis;
+
+    @AfterEach
+    public void restoreConfig() {
+        BetterTextFieldConfig.undoGroupIdleMillis = this.idleMillis;
+    }
+
+    @Test
+    public void matchesVanillaWithoutMerging() {
+        BetterTextFieldConfig.undoGroupIdleMillis = 0;
+        fuzz(false);
+    }
+
+    @Test
+    public void matchesVanillaWithMerging() {
+        // 足够长，合并与否不取决于运行速度
+        BetterTextFieldConfig.undoGroupIdleMillis = Integer.MAX_VALUE;
+        fuzz(true);
+    }
+
+    @Test
+    public void filterMatchesVanilla() {
+        String alphabet = "ab §\u007f\u0000\n\u00e9";
+        for (long seed = 0; seed < SEQUENCES * 5; seed++) {
+            Random random = new Random(seed);
+            List<Character> input = new ArrayList<>();
+            int length = random.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                input.add(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            int limit = random.nextInt(14);
+            Function<List<Character>, String> check = chars -> {
+                StringBuilder builder = new StringBuilder();
+                chars.forEach(builder::append);
+                String text = builder.toString();
+                String expected = ChatAllowedCharacters.filterAllowedCharacters(text);
+                expected = expected.substring(0, Math.min(limit, expected.length()));
+                String actual = ClientUtils.filterAllowedCharacters(text, limit);
+                return expected.equals(actual) ? null
+                        : "filterAllowedCharacters(" + quote(text) + ", " + limit + ") = " + quote(actual) + ", expected " + quote(expected);
+            };
+            String failure = check.apply(input);
+            if (failure != null) {
+                List<Character> minimal = shrink(input, check);
+                fail("seed " + seed + ": " + check.apply(minimal));
+            }
+        }
+    }
+
+    private static void fuzz(boolean merging) {
+        for (long seed = 0; seed < SEQUENCES; seed++) {
+            Random random = new Random(seed);
+            Setup setup = new Setup(random);
+            List<Op> ops = new ArrayList<>();
+            int count = 1 + random.nextInt(MAX_OPS);
+            for (int i = 0; i < count; i++) {
+                ops.add(Op.random(random));
+            }
+            Function<List<Op>, String> run = candidate -> new Session(setup, merging).run(candidate);
+            String failure = run.apply(ops);
+            if (failure != null) {
+                List<Op> minimal = shrink(ops, run);
+                fail("seed " + seed + (merging ? " with" : " without") + " merging, " + setup
+                        + ", minimal sequence " + minimal + ": " + run.apply(minimal));
+            }
+        }
+    }
+
+    /**
+     * 逐段删去元素，只要剩下的部分仍然失败就保留删除，段长从一半逐步减到 1。
+     *
+     * @param check 返回失败信息，通过时返回 null
+     */
+    private static <T> List<T> shrink(List<T> items, Function<List<T>, String> check) {
+        List<T> current = items;
+        int chunk = Math.max(current.size() / 2, 1);
+        while (true) {
+            boolean removed = false;
+            for (int start = 0; start + chunk <= current.size(); ) {
+                List<T> candidate = new ArrayList<>(current.subList(0, start));
+                candidate.addAll(current.subList(start + chunk, current.size()));
+                if (check.apply(candidate) != null) {
+                    current = candidate;
+                    removed = true;
+                } else {
+                    start += chunk;
+                }
+            }
+            if (chunk == 1 && !removed) return current;
+            if (!removed) {
+                chunk /= 2;
+            }
+        }
+    }
+
+    private static String quote(String text) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            if (c >= 0x20 && c < 0x7f && c != '"' && c != '\\') {
+                builder.append(c);
+            } else {
+                builder.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private static String randomText(Random random, String alphabet, int maxLength) {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 由种子决定、缩减时保持不变的文本框设置。
+     */
+    private static final class Setup {
+        final boolean mixedWidth;
+        final int width;
+        final boolean background;
+        final int maxLength;
+        final boolean noDigits;
+        final boolean listening;
+        final String text;
+
+        Setup(Random random) {
+            this.mixedWidth = random.nextBoolean();
+            this.width = new int[]{12, 40, 120}[random.nextInt(3)];
+            this.background = random.nextBoolean();
+            this.maxLength = 4 + random.nextInt(40);
+            this.noDigits = random.nextInt(4) == 0;
+            this.listening = random.nextBoolean();
+            this.text = randomText(random, SET, this.maxLength);
+        }
+
+        @Override
+        public String toString() {
+            return (this.mixedWidth ? "mixed" : "fixed") + " width font, field width " + this.width
+                    + (this.background ? " with" : " without") + " background, max length " + this.maxLength
+                    + (this.noDigits ? ", no digits" : "") + (this.listening ? ", change listener" : "")
+                    + ", text " + quote(this.text);
+        }
+    }
+
+    private enum OpKind {
+        WRITE, SET_TEXT, SET_MAX_LENGTH, DELETE, REPEAT_DELETE, DELETE_WORDS,
+        CURSOR, SELECT, MOVE, WORD, SELECT_WORD, SELECT_ALL, CLICK, UNDO, REDO
+    }
+
+    private static final class Op {
+        final OpKind kind;
+        final int arg;
+        final int arg2;
+        final String text;
+
+        Op(OpKind kind, int arg, int arg2, String text) {
+            this.kind = kind;
+            this.arg = arg;
+            this.arg2 = arg2;
+            this.text = text;
+        }
+
+        Op(OpKind kind, int arg) {
+            this(kind, arg, 0, "");
+        }
+
+        /**
+         * 参数与文本状态无关，原版与接管后都会把位置限制在文本范围内，删去其中的操作后序列仍然有效。
+         */
+        static Op random(Random random) {
+            OpKind kind = OpKind.values()[random.nextInt(OpKind.values().length)];
+            switch (kind) {
+                case WRITE:
+                    // 偶尔粘贴一长段
+                    return new Op(kind, 0, 0, randomText(random, TYPED, random.nextInt(8) == 0 ? 30 : 3));
+                case SET_TEXT:
+                    return new Op(kind, 0, 0, randomText(random, SET, 48));
+                case SET_MAX_LENGTH:
+                    return new Op(kind, random.nextInt(50));
+                case DELETE:
+                    return new Op(kind, random.nextInt(7) - 3);
+                case REPEAT_DELETE:
+                    return new Op(kind, random.nextBoolean() ? -2 - random.nextInt(10) : 2 + random.nextInt(10));
+                case DELETE_WORDS:
+                case WORD:
+                case SELECT_WORD:
+                case MOVE:
+                    return new Op(kind, random.nextInt(5) - 2);
+                case CURSOR:
+                case SELECT:
+                    return new Op(kind, random.nextInt(52) - 2);
+                case CLICK:
+                    // 包括文本框边缘外的位置
+                    return new Op(kind, random.nextInt(130) - 4, random.nextInt(24) - 2, "");
+                default:
+                    return new Op(kind, 0);
+            }
+        }
+
+        @Override
+        public String toString() {
+            switch (this.kind) {
+                case WRITE:
+                case SET_TEXT:
+                    return this.kind + "(" + quote(this.text) + ")";
+                case CLICK:
+                    return this.kind + "(" + this.arg + ", " + this.arg2 + ")";
+                case SELECT_ALL:
+                case UNDO:
+                case REDO:
+                    return this.kind.toString();
+                default:
+                    return this.kind + "(" + this.arg + ")";
+            }
+        }
+    }
+
+    /**
+     * 原版未保存撤销历史，以编辑前后的文本与选区代替。
+     */
+    private static final class Snapshot {
+        final String before;
+        final int cursorBefore;
+        final int selectionBefore;
+        String after;
+        int cursorAfter;
+        int selectionAfter;
+
+        Snapshot(String before, int cursorBefore, int selectionBefore, String after, int cursorAfter, int selectionAfter) {
+            this.before = before;
+            this.cursorBefore = cursorBefore;
+            this.selectionBefore = selectionBefore;
+            this.after = after;
+            this.cursorAfter = cursorAfter;
+            this.selectionAfter = selectionAfter;
+        }
+    }
+
+    private static final class Session {
+        private static final Field TEXT;
+        private static final Field LINE_SCROLL_OFFSET;
+        private static final Field IS_FOCUSED;
+
+        static {
+            try {
+                TEXT = GuiTextFieldOrig.class.getDeclaredField("text");
+                TEXT.setAccessible(true);
+                LINE_SCROLL_OFFSET = GuiTextFieldOrig.class.getDeclaredField("lineScrollOffset");
+                LINE_SCROLL_OFFSET.setAccessible(true);
+                IS_FOCUSED = GuiTextFieldOrig.class.getDeclaredField("isFocused");
+                IS_FOCUSED.setAccessible(true);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private final boolean merging;
+        private final boolean repeatable;
+        private final FontRenderer fontRenderer;
+        private final GuiTextFieldOrig vanilla;
+        private final PatchedTextField field;
+        private final int width;
+
+        private final List<Snapshot> undo = new ArrayList<>();
+        private final List<Snapshot> redo = new ArrayList<>();
+        /// 合并时撤销只能检查结果是否出现过
+        private final List<String> states = new ArrayList<>();
+
+        /// 监听器收到的修改依次套用后的文本
+        @Nullable
+        private String heard;
+        /// 最近一次通知时的光标与选区，通知必须在它们到达最终位置后发出
+        private int heardCursor = -1;
+        private int heardSelection = -1;
+
+        Session(Setup setup, boolean merging) {
+            this.merging = merging;
+            this.fontRenderer = setup.mixedWidth ? TestFonts.mixedWidth() : TestFonts.fixedWidth(6);
+            Predicate<String> validator = setup.noDigits ? NO_DIGITS : Predicates.alwaysTrue();
+            // 与 GuiTextFieldMixin 相同，连发删除只在默认 validator 下合并
+            this.repeatable = !setup.noDigits;
+
+            this.vanilla = new GuiTextFieldOrig(0, this.fontRenderer, 0, 0, setup.width, 20);
+            this.vanilla.setEnableBackgroundDrawing(setup.background);
+            this.vanilla.setMaxStringLength(setup.maxLength);
+            this.vanilla.setText(setup.text);
+            this.vanilla.setValidator(validator);
+            this.vanilla.setCanLoseFocus(false);
+            try {
+                // 原版 setFocused 需要游戏实例
+                IS_FOCUSED.setBoolean(this.vanilla, true);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+
+            this.field = new PatchedTextField(0, this.fontRenderer, 0, 0, setup.width, 20);
+            this.field.setEnableBackgroundDrawing(setup.background);
+            this.field.setMaxStringLength(setup.maxLength);
+            this.field.setText(setup.text);
+            this.field.setValidator(validator);
+            this.field.setCanLoseFocus(false);
+            this.field.setFocused(true);
+            if (setup.listening) {
+                this.heard = this.field.getText();
+                this.field.betterTextField$getData().addChangeListener(this::onTextChanged);
+            }
+
+            this.width = this.vanilla.getWidth();
+            this.states.add(this.vanilla.getText());
+        }
+
+        private void onTextChanged(GuiTextField field, TextChange change) {
+            String heard = this.heard;
+            int end = change.getOffset() + change.getRemoved().length();
+            assertTrue(end <= heard.length(), () -> change + " is out of range of " + quote(heard));
+            assertEquals(change.getRemoved(), heard.substring(change.getOffset(), end), "removed text of " + change);
+            this.heard = heard.substring(0, change.getOffset()) + change.getInserted() + heard.substring(end);
+            this.heardCursor = field.getCursorPosition();
+            this.heardSelection = field.getSelectionEnd();
+        }
+
+        /**
+         * @return 失败信息，通过时返回 null
+         */
+        @Nullable
+        String run(List<Op> ops) {
+            int step = 0;
+            try {
+                this.compare();
+                for (; step < ops.size(); step++) {
+                    if (!this.apply(ops.get(step))) return null;
+                    this.compare();
+                }
+                if (this.merging) {
+                    this.undoAndRedoAll();
+                }
+                return null;
+            } catch (Throwable t) {
+                return (step < ops.size() ? "after " + ops.get(step) + ": " : "") + t;
+            }
+        }
+
+        /**
+         * setMaxStringLength 不移动光标，原版之后的操作可能越界抛出异常。
+         *
+         * @return 原版抛出异常时为 false，之后的状态没有意义，不再比较
+         */
+        private boolean apply(Op op) throws ReflectiveOperationException {
+            // GuiTextFieldMixin 只在默认 validator 下合并连发删除，其他情况下与 DELETE 相同
+            if (op.kind == OpKind.REPEAT_DELETE && !this.repeatable) return true;
+            String text;
+            int cursor;
+            int selection;
+            try {
+                if (op.kind == OpKind.REPEAT_DELETE) {
+                    // 连发删除在没有选区时才合并
+                    this.vanilla.moveCursorBy(0);
+                }
+                text = this.vanilla.getText();
+                cursor = this.vanilla.getCursorPosition();
+                selection = this.vanilla.getSelectionEnd();
+                this.applyVanilla(op);
+            } catch (RuntimeException e) {
+                return false;
+            }
+            this.heardCursor = -1;
+            this.applyPatched(op);
+            if (this.heard != null && this.heardCursor >= 0) {
+                assertEquals(this.field.getCursorPosition(), this.heardCursor, "cursor seen by the change listener");
+                assertEquals(this.field.getSelectionEnd(), this.heardSelection, "selection end seen by the change listener");
+            }
+            if (op.kind == OpKind.UNDO || op.kind == OpKind.REDO) return true;
+
+            String after = this.vanilla.getText();
+            if (after.equals(text)) return true;
+            this.states.add(after);
+            if (op.kind != OpKind.SET_TEXT && op.kind != OpKind.SET_MAX_LENGTH) {
+                this.undo.add(new Snapshot(text, cursor, selection, after, this.vanilla.getCursorPosition(), this.vanilla.getSelectionEnd()));
+                this.redo.clear();
+                return true;
+            }
+            // 外部修改与上一条记录一起撤销，没有历史时不记录
+            this.redo.clear();
+            if (!this.undo.isEmpty()) {
+                Snapshot top = this.undo.get(this.undo.size() - 1);
+                top.after = after;
+                top.cursorAfter = after.length();
+                top.selectionAfter = after.length();
+            }
+            return true;
+        }
+
+        private void applyVanilla(Op op) throws ReflectiveOperationException {
+            GuiTextFieldOrig field = this.vanilla;
+            switch (op.kind) {
+                case WRITE:
+                    field.writeText(op.text);
+                    break;
+                case SET_TEXT:
+                    field.setText(op.text);
+                    break;
+                case SET_MAX_LENGTH:
+                    field.setMaxStringLength(op.arg);
+                    break;
+                case DELETE:
+                    field.deleteFromCursor(op.arg);
+                    break;
+                case REPEAT_DELETE:
+                    for (int i = 0; i < Math.abs(op.arg); i++) {
+                        field.deleteFromCursor(Integer.signum(op.arg));
+                    }
+                    break;
+                case DELETE_WORDS:
+                    field.deleteWords(op.arg);
+                    break;
+                case CURSOR:
+                    field.setCursorPosition(op.arg);
+                    break;
+                case SELECT:
+                    field.setSelectionPos(op.arg);
+                    break;
+                case MOVE:
+                    field.moveCursorBy(op.arg);
+                    break;
+                case WORD:
+                    field.setCursorPosition(field.getNthWordFromCursor(op.arg));
+                    break;
+                case SELECT_WORD:
+                    field.setSelectionPos(field.getNthWordFromPos(op.arg, field.getSelectionEnd()));
+                    break;
+                case SELECT_ALL:
+                    field.setCursorPositionEnd();
+                    field.setSelectionPos(0);
+                    break;
+                case CLICK:
+                    field.mouseClicked(op.arg, op.arg2, 0);
+                    break;
+                case UNDO:
+                    this.undoVanilla();
+                    break;
+                case REDO:
+                    this.redoVanilla();
+                    break;
+            }
+        }
+
+        private void applyPatched(Op op) throws ReflectiveOperationException {
+            PatchedTextField field = this.field;
+            switch (op.kind) {
+                case WRITE:
+                    field.writeText(op.text);
+                    break;
+                case SET_TEXT:
+                    field.setText(op.text);
+                    break;
+                case SET_MAX_LENGTH:
+                    field.setMaxStringLength(op.arg);
+                    break;
+                case DELETE:
+                    field.deleteFromCursor(op.arg);
+                    break;
+                case REPEAT_DELETE:
+                    field.moveCursorBy(0);
+                    int step = Integer.signum(op.arg);
+                    for (int i = 0; i < Math.abs(op.arg); i++) {
+                        // 有选区时 GuiTextFieldMixin 照常处理这次按键
+                        if (!TextFieldLogic.queueDelete(field, step)) {
+                            field.deleteFromCursor(step);
+                        }
+                    }
+                    break;
+                case DELETE_WORDS:
+                    field.deleteWords(op.arg);
+                    break;
+                case CURSOR:
+                    field.setCursorPosition(op.arg);
+                    break;
+                case SELECT:
+                    field.setSelectionPos(op.arg);
+                    break;
+                case MOVE:
+                    field.moveCursorBy(op.arg);
+                    break;
+                case WORD:
+                    field.setCursorPosition(field.getNthWordFromCursor(op.arg));
+                    break;
+                case SELECT_WORD:
+                    field.setSelectionPos(field.getNthWordFromPos(op.arg, field.getSelectionEnd()));
+                    break;
+                case SELECT_ALL:
+                    field.setCursorPositionEnd();
+                    field.setSelectionPos(0);
+                    break;
+                case CLICK:
+                    assertEquals(this.vanilla.isFocused() && this.hits(op), field.mouseClicked(op.arg, op.arg2, 0), "mouseClicked result");
+                    break;
+                case UNDO:
+                    if (this.merging) {
+                        this.undoMerged();
+                    } else {
+                        TextFieldLogic.undo(field);
+                    }
+                    break;
+                case REDO:
+                    if (this.merging) {
+                        this.redoMerged();
+                    } else {
+                        TextFieldLogic.redo(field);
+                    }
+                    break;
+            }
+        }
+
+        private boolean hits(Op op) {
+            return op.arg >= 0 && op.arg < this.field.width && op.arg2 >= 0 && op.arg2 < this.field.height;
+        }
+
+        private void compare() throws ReflectiveOperationException {
+            String text = this.vanilla.getText();
+            assertEquals(text, this.field.getText(), "text");
+            assertEquals(this.vanilla.getCursorPosition(), this.field.getCursorPosition(), "cursor");
+            assertEquals(this.vanilla.getSelectionEnd(), this.field.getSelectionEnd(), "selection end");
+            int scroll = LINE_SCROLL_OFFSET.getInt(this.vanilla);
+            assertEquals(scroll, this.field.betterTextField$getScrollField(), "line scroll offset");
+            if (this.heard != null) {
+                assertEquals(text, this.heard, "text rebuilt from the changes heard by the listener");
+            }
+            if (scroll <= text.length()) {
+                WidthIndex index = TextFieldLogic.getWidthIndex(this.field);
+                assertNotNull(index, "width index rejected the text");
+                assertEquals(this.fontRenderer.trimStringToWidth(text.substring(scroll), this.width).length() + scroll,
+                        index.trimEnd(scroll, this.width), "visible end");
+            }
+        }
+
+        /*
+        原版的撤销：套用快照
+         */
+
+        private void undoVanilla() throws ReflectiveOperationException {
+            // 合并时由 undoMerged 让原版回到接管后的状态
+            if (this.merging || this.undo.isEmpty()) return;
+            Snapshot snapshot = this.undo.remove(this.undo.size() - 1);
+            this.redo.add(snapshot);
+            TEXT.set(this.vanilla, snapshot.before);
+            this.vanilla.setCursorPosition(snapshot.cursorBefore);
+            this.vanilla.setSelectionPos(snapshot.selectionBefore);
+        }
+
+        private void redoVanilla() throws ReflectiveOperationException {
+            if (this.merging || this.redo.isEmpty()) return;
+            Snapshot snapshot = this.redo.remove(this.redo.size() - 1);
+            this.undo.add(snapshot);
+            TEXT.set(this.vanilla, snapshot.after);
+            this.vanilla.setCursorPosition(snapshot.cursorAfter);
+            this.vanilla.setSelectionPos(snapshot.selectionAfter);
+        }
+
+        @Nullable
+        private EditHistory history() {
+            return this.field.betterTextField$getData().peekHistory();
+        }
+
+        /**
+         * 合并后的撤销结果必须是出现过的文本，之后让原版回到同样的状态继续比较。
+         */
+        private void undoMerged() throws ReflectiveOperationException {
+            EditHistory history = this.history();
+            if (history == null || !history.canUndo()) return;
+            TextFieldLogic.undo(this.field);
+            this.syncVanilla(history);
+        }
+
+        private void redoMerged() throws ReflectiveOperationException {
+            EditHistory history = this.history();
+            if (history == null || !history.canRedo()) return;
+            TextFieldLogic.redo(this.field);
+            this.syncVanilla(history);
+        }
+
+        private void syncVanilla(EditHistory history) throws ReflectiveOperationException {
+            String text = this.field.getText();
+            assertTrue(this.states.contains(text), () -> "restored " + quote(text) + " which never existed");
+            TEXT.set(this.vanilla, text);
+            this.vanilla.setCursorPosition(history.getRestoredCursor());
+            this.vanilla.setSelectionPos(history.getRestoredSelection());
+        }
+
+        /**
+         * 先重做到最新的状态，全部撤销再全部重做后应回到这一状态。
+         */
+        private void undoAndRedoAll() throws ReflectiveOperationException {
+            this.redoAll();
+            String newest = this.field.getText();
+            EditHistory history = this.history();
+            while (history != null && history.canUndo()) {
+                this.undoMerged();
+                this.compare();
+            }
+            this.redoAll();
+            assertEquals(newest, this.field.getText(), "text after undoing and redoing everything");
+        }
+
+        private void redoAll() throws ReflectiveOperationException {
+            EditHistory history = this.history();
+            while (history != null && history.canRedo()) {
+                this.redoMerged();
+                this.compare();
+            }
+        }
+    }
+}
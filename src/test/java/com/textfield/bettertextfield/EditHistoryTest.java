@@ -0,0 +1,183 @@
+package com.textfield.bettertextfield;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EditHistoryTest {
+    /**
+     * 与 GuiTextFieldMixin 记录 setText 的方式相同。
+     */
+    private static void setText(TextBuffer buffer, EditHistory history, String text) {
+        String previous = buffer.toString();
+        if (previous.equals(text)) return;
+        TextChange change = TextChange.between(previous, text, 0);
+        if (history.isTopJoined()) {
+            history.foldIntoTop(previous, change.getOffset(), change.getRemoved(), change.getInserted(), text.length(), text.length());
+        } else {
+            history.push(EditKind.OTHER, change.getOffset(), change.getRemoved(), change.getInserted(),
+                    previous.length(), previous.length(), text.length(), text.length(), true);
+        }
+        buffer.set(text);
+    }
+
+    private static void backspace(TextBuffer buffer, EditHistory history, int count) {
+        int end = buffer.length();
+        String removed = buffer.substring(end - count, end);
+        buffer.delete(end - count, end);
+        history.push(EditKind.BACKSPACE, end - count, removed, "", end, end, end - count, end - count, false);
+    }
+
+    private static void type(TextBuffer buffer, EditHistory history, String text) {
+        int length = buffer.length();
+        buffer.insert(length, text);
+        history.push(EditKind.OTHER, length, "", text, length, length, buffer.length(), buffer.length(), false);
+    }
+
+    @Test
+    public void consecutiveSetTextFoldsIntoOneRecord() {
+        Random random = new Random(2024L);
+        for (int round = 0; round < 200; round++) {
+            TextBuffer buffer = new TextBuffer("");
+            EditHistory history = new EditHistory(4);
+            String base = randomText(random, 12);
+            type(buffer, history, base);
+            String text = base;
+            // 容量只有 4，逐条记录时前面的输入会被挤掉
+            for (int i = 0; i < 20; i++) {
+                text = mutate(random, text);
+                setText(buffer, history, text);
+            }
+            assertEquals(text, buffer.toString());
+            if (!text.equals(base)) {
+                assertTrue(history.isTopJoined());
+            }
+            // 一次撤销连同外部修改与输入一起撤销
+            history.undo(buffer, null);
+            assertEquals("", buffer.toString());
+            assertFalse(history.canUndo());
+            history.redo(buffer, null);
+            assertEquals(text, buffer.toString());
+            assertFalse(history.canRedo());
+            history.clear();
+        }
+    }
+
+    @Test
+    public void foldBackToOriginalDropsRecord() {
+        TextBuffer buffer = new TextBuffer("");
+        EditHistory history = new EditHistory(8);
+        type(buffer, history, "hello");
+        setText(buffer, history, "world");
+        assertTrue(history.isTopJoined());
+        setText(buffer, history, "hello");
+        assertFalse(history.isTopJoined());
+        history.undo(buffer, null);
+        assertEquals("", buffer.toString());
+        assertFalse(history.canUndo());
+        history.clear();
+    }
+
+    @Test
+    public void foldKeepsUnchangedMiddle() {
+        TextBuffer buffer = new TextBuffer("");
+        EditHistory history = new EditHistory(8);
+        type(buffer, history, "abcdefgh");
+        setText(buffer, history, "Xbcdefgh");
+        setText(buffer, history, "XbcdefgY");
+        type(buffer, history, "!");
+        // 撤销输入后再撤销一次，回到两次 setText 之前
+        history.undo(buffer, null);
+        assertEquals("XbcdefgY", buffer.toString());
+        history.undo(buffer, null);
+        assertEquals("", buffer.toString());
+        history.clear();
+    }
+
+    private static void typeChar(TextBuffer buffer, EditHistory history, char c) {
+        int length = buffer.length();
+        buffer.insert(length, String.valueOf(c));
+        history.push(EditKind.INSERT, length, "", String.valueOf(c), length, length, length + 1, length + 1, false);
+    }
+
+    @Test
+    public void typingIsGroupedWithinIdleTime() {
+        int idle = BetterTextFieldConfig.undoGroupIdleMillis;
+        try {
+            BetterTextFieldConfig.undoGroupIdleMillis = 60000;
+            TextBuffer buffer = new TextBuffer("");
+            EditHistory history = new EditHistory(8);
+            typeChar(buffer, history, 'a');
+            typeChar(buffer, history, 'b');
+            history.undo(buffer, null);
+            assertEquals("", buffer.toString());
+            history.clear();
+        } finally {
+            BetterTextFieldConfig.undoGroupIdleMillis = idle;
+        }
+    }
+
+    @Test
+    public void backspaceGroupRestoresDeletedText() {
+        int idle = BetterTextFieldConfig.undoGroupIdleMillis;
+        try {
+            BetterTextFieldConfig.undoGroupIdleMillis = 60000;
+            // 代理对的两半被分别删除
+            String text = "ab\uD83D\uDE00cdef";
+            TextBuffer buffer = new TextBuffer(text);
+            EditHistory history = new EditHistory(8);
+            // 连发合并后一次删除两个字符
+            backspace(buffer, history, 2);
+            while (buffer.length() > 0) {
+                backspace(buffer, history, 1);
+            }
+            history.undo(buffer, null);
+            assertEquals(text, buffer.toString());
+            assertFalse(history.canUndo());
+            history.redo(buffer, null);
+            assertEquals("", buffer.toString());
+            history.clear();
+        } finally {
+            BetterTextFieldConfig.undoGroupIdleMillis = idle;
+        }
+    }
+
+    @Test
+    public void zeroIdleTimeDisablesGrouping() {
+        int idle = BetterTextFieldConfig.undoGroupIdleMillis;
+        try {
+            BetterTextFieldConfig.undoGroupIdleMillis = 0;
+            TextBuffer buffer = new TextBuffer("");
+            EditHistory history = new EditHistory(8);
+            // 两次按键几乎总在同一毫秒内
+            typeChar(buffer, history, 'a');
+            typeChar(buffer, history, 'b');
+            history.undo(buffer, null);
+            assertEquals("a", buffer.toString());
+            history.undo(buffer, null);
+            assertEquals("", buffer.toString());
+            history.clear();
+        } finally {
+            BetterTextFieldConfig.undoGroupIdleMillis = idle;
+        }
+    }
+
+    private static String randomText(Random random, int maxLength) {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(3)));
+        }
+        return builder.toString();
+    }
+
+    private static String mutate(Random random, String text) {
+        int start = random.nextInt(text.length() + 1);
+        int end = start + random.nextInt(text.length() - start + 1);
+        return text.substring(0, start) + randomText(random, 4) + text.substring(end);
+    }
+}
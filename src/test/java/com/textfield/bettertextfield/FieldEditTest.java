@@ -0,0 +1,169 @@
+package com.textfield.bettertextfield;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import net.minecraft.client.gui.GuiTextField;
+import net.minecraft.util.ChatAllowedCharacters;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 测试时没有应用 mixin，{@link GuiTextField} 就是原版实现。
+ */
+public class FieldEditTest {
+    private static final Predicate<String> NO_DIGITS = s -> s.chars().noneMatch(Character::isDigit);
+
+    private static GuiTextField vanilla(String text, int cursor, int selection, int maxLength, Predicate<String> validator) {
+        GuiTextField field = new GuiTextField(0, null, 0, 0, 100, 20);
+        field.setMaxStringLength(maxLength);
+        field.setText(text);
+        field.setValidator(validator);
+        field.setCursorPosition(cursor);
+        field.setSelectionPos(selection);
+        return field;
+    }
+
+    /**
+     * 文本为 "hello"，撤销栈有一条记录，重做栈有一条追加 "!" 的记录。
+     */
+    private static EditHistory historyWithRedo(TextBuffer buffer) {
+        EditHistory history = new EditHistory(8);
+        buffer.insert(0, "hello");
+        history.push(EditKind.OTHER, 0, "", "hello", 0, 0, 5, 5, false);
+        buffer.insert(5, "!");
+        history.push(EditKind.OTHER, 5, "", "!", 5, 5, 6, 6, false);
+        history.undo(buffer, null);
+        assertEquals("hello", buffer.toString());
+        return history;
+    }
+
+    /**
+     * 与 GuiTextFieldMixin 相同的记录方式。
+     */
+    private static void record(EditHistory history, FieldEdit edit, int cursorBefore, int cursorAfter) {
+        history.push(EditKind.OTHER, edit.getOffset(), edit.getRemoved(), edit.getInserted(),
+                cursorBefore, cursorBefore, cursorAfter, cursorAfter, false);
+    }
+
+    private static void assertHistoryUntouched(TextBuffer buffer, EditHistory history) {
+        assertTrue(history.canRedo(), "redo history was cleared");
+        history.redo(buffer, null);
+        assertEquals("hello!", buffer.toString());
+        history.undo(buffer, null);
+        history.undo(buffer, null);
+        assertEquals("", buffer.toString());
+        assertFalse(history.canUndo(), "a no-op edit was recorded");
+        history.clear();
+    }
+
+    @Test
+    public void rejectedByValidator() {
+        TextBuffer buffer = new TextBuffer("");
+        EditHistory history = historyWithRedo(buffer);
+        GuiTextField field = vanilla("hello", 5, 5, 32, NO_DIGITS);
+        field.writeText("1");
+        assertEquals("hello", field.getText());
+        assertEquals(5, field.getCursorPosition());
+
+        assertNull(FieldEdit.write(buffer, 5, 5, 32, NO_DIGITS, "1"));
+        assertNull(FieldEdit.delete(buffer, 5, -1, s -> s.length() == 5));
+        assertEquals(field.getText(), buffer.toString());
+        assertHistoryUntouched(buffer, history);
+    }
+
+    @Test
+    public void writeAtMaxLength() {
+        TextBuffer buffer = new TextBuffer("");
+        EditHistory history = historyWithRedo(buffer);
+        GuiTextField field = vanilla("hello", 5, 5, 5, Predicates.alwaysTrue());
+        field.writeText("x");
+        assertEquals("hello", field.getText());
+        assertEquals(5, field.getCursorPosition());
+
+        FieldEdit edit = FieldEdit.write(buffer, 5, 5, 5, Predicates.alwaysTrue(), "x");
+        assertNotNull(edit);
+        assertFalse(edit.changesText());
+        assertEquals(field.getText(), buffer.toString());
+        record(history, edit, 5, field.getCursorPosition());
+        assertHistoryUntouched(buffer, history);
+    }
+
+    @Test
+    public void backspaceAtStart() {
+        TextBuffer buffer = new TextBuffer("");
+        EditHistory history = historyWithRedo(buffer);
+        GuiTextField field = vanilla("hello", 0, 0, 32, Predicates.alwaysTrue());
+        field.deleteFromCursor(-1);
+        assertEquals("hello", field.getText());
+        assertEquals(0, field.getCursorPosition());
+
+        FieldEdit edit = FieldEdit.delete(buffer, 0, -1, Predicates.alwaysTrue());
+        assertNotNull(edit);
+        assertFalse(edit.changesText());
+        assertEquals(field.getText(), buffer.toString());
+        record(history, edit, 0, field.getCursorPosition());
+        assertHistoryUntouched(buffer, history);
+    }
+
+    @Test
+    public void backspaceOnEmptyField() {
+        GuiTextField field = vanilla("", 0, 0, 32, Predicates.alwaysTrue());
+        field.deleteFromCursor(-1);
+        assertEquals("", field.getText());
+
+        TextBuffer buffer = new TextBuffer("");
+        EditHistory history = new EditHistory(8);
+        buffer.insert(0, "hello");
+        history.push(EditKind.OTHER, 0, "", "hello", 0, 0, 5, 5, false);
+        history.undo(buffer, null);
+        FieldEdit edit = FieldEdit.delete(buffer, 0, -1, Predicates.alwaysTrue());
+        assertNotNull(edit);
+        assertFalse(edit.changesText());
+        assertEquals(field.getText(), buffer.toString());
+        record(history, edit, 0, 0);
+        assertTrue(history.canRedo(), "redo history was cleared");
+        assertFalse(history.canUndo(), "a no-op edit was recorded");
+        history.redo(buffer, null);
+        assertEquals("hello", buffer.toString());
+        history.clear();
+    }
+
+    @Test
+    public void matchesVanillaText() {
+        Random random = new Random(5L);
+        String alphabet = "ab 1§";
+        for (int i = 0; i < 20000; i++) {
+            int maxLength = 1 + random.nextInt(12);
+            StringBuilder builder = new StringBuilder();
+            int length = random.nextInt(maxLength + 1);
+            for (int j = 0; j < length; j++) {
+                builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String text = ChatAllowedCharacters.filterAllowedCharacters(builder.toString());
+            int cursor = random.nextInt(text.length() + 1);
+            int selection = random.nextBoolean() ? cursor : random.nextInt(text.length() + 1);
+            Predicate<String> validator = random.nextInt(4) == 0 ? NO_DIGITS : Predicates.alwaysTrue();
+            GuiTextField field = vanilla(text, cursor, selection, maxLength, validator);
+            TextBuffer buffer = new TextBuffer(field.getText());
+            if (random.nextBoolean()) {
+                String toWrite = alphabet.substring(random.nextInt(alphabet.length()));
+                field.writeText(toWrite);
+                FieldEdit.write(buffer, cursor, selection, maxLength, validator, toWrite);
+            } else if (cursor == selection) {
+                int num = random.nextInt(7) - 3;
+                field.deleteFromCursor(num);
+                FieldEdit.delete(buffer, cursor, num, validator);
+            } else {
+                continue;
+            }
+            assertEquals(field.getText(), buffer.toString());
+        }
+    }
+}
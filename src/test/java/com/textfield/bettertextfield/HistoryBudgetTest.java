@@ -0,0 +1,73 @@
+package com.textfield.bettertextfield;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HistoryBudgetTest {
+    private final int budgetKilobytes = BetterTextFieldConfig.undoHistoryBudgetKilobytes;
+
+    @BeforeEach
+    public void trimOtherHistories() {
+        // 预算为 0 时，其他测试留下的历史在下一次记录时全部被裁剪
+        BetterTextFieldConfig.undoHistoryBudgetKilobytes = 0;
+        EditHistory sweep = new EditHistory(1);
+        push(sweep, 1);
+        assertTrue(sweep.canUndo(), "the current history keeps its newest step");
+        sweep.clear();
+        assertEquals(0L, HistoryBudget.getUsedBytes());
+    }
+
+    @AfterEach
+    public void restoreConfig() {
+        BetterTextFieldConfig.undoHistoryBudgetKilobytes = this.budgetKilobytes;
+    }
+
+    @Test
+    public void trimsLeastRecentlyFocusedFirst() {
+        BetterTextFieldConfig.undoHistoryBudgetKilobytes = 1;
+        EditHistory first = new EditHistory(8);
+        EditHistory second = new EditHistory(8);
+        EditHistory third = new EditHistory(8);
+        first.setFocused(true);
+        first.setFocused(false);
+        second.setFocused(true);
+        second.setFocused(false);
+        third.setFocused(true);
+        // 编辑的先后与获得焦点的先后相反，不影响裁剪顺序
+        push(second, 100);
+        push(first, 100);
+        push(third, 300);
+        assertFalse(first.canUndo(), "the least recently focused history was kept");
+        assertTrue(second.canUndo(), "a more recently focused history was trimmed");
+        assertTrue(third.canUndo());
+        assertTrue(HistoryBudget.getUsedBytes() <= 1024L);
+    }
+
+    @Test
+    public void zeroBudgetKeepsOnlyTheNewestStep() {
+        EditHistory history = new EditHistory(8);
+        history.setFocused(true);
+        for (int i = 0; i < 20; i++) {
+            push(history, 10);
+        }
+        history.undo(new TextBuffer(repeat(200)), null);
+        assertFalse(history.canUndo());
+    }
+
+    private static void push(EditHistory history, int length) {
+        history.push(EditKind.OTHER, 0, "", repeat(length), 0, 0, length, length, false);
+    }
+
+    private static String repeat(int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append('a');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package com.textfield.bettertextfield;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class MemoryWatcherTest {
+    private static MemoryPoolMXBean findPool() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported()
+                    && pool.isCollectionUsageThresholdSupported() && pool.getUsage().getMax() > 0) {
+                return pool;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void keepsThresholdsSetByOthers() {
+        MemoryPoolMXBean pool = findPool();
+        assertNotNull(pool);
+        int percent = BetterTextFieldConfig.heapTrimThresholdPercent;
+        long foreign = pool.getUsage().getMax() / 2L;
+        try {
+            pool.setCollectionUsageThreshold(foreign);
+            BetterTextFieldConfig.heapTrimThresholdPercent = 85;
+            MemoryWatcher.install();
+            assertEquals(foreign, pool.getCollectionUsageThreshold());
+            BetterTextFieldConfig.heapTrimThresholdPercent = 0;
+            MemoryWatcher.updateThreshold();
+            assertEquals(foreign, pool.getCollectionUsageThreshold());
+        } finally {
+            pool.setCollectionUsageThreshold(0L);
+            BetterTextFieldConfig.heapTrimThresholdPercent = percent;
+        }
+    }
+
+    @Test
+    public void disablingDoesNotClearThresholds() {
+        MemoryPoolMXBean pool = findPool();
+        assertNotNull(pool);
+        int percent = BetterTextFieldConfig.heapTrimThresholdPercent;
+        try {
+            pool.setCollectionUsageThreshold(0L);
+            BetterTextFieldConfig.heapTrimThresholdPercent = 85;
+            MemoryWatcher.install();
+            long owned = pool.getUsage().getMax() / 100L * 85;
+            assertEquals(owned, pool.getCollectionUsageThreshold());
+            // 关闭时只忽略通知，不写入 0
+            BetterTextFieldConfig.heapTrimThresholdPercent = 0;
+            MemoryWatcher.updateThreshold();
+            assertEquals(owned, pool.getCollectionUsageThreshold());
+            // 重新打开时可以更新自己设置的阈值
+            BetterTextFieldConfig.heapTrimThresholdPercent = 90;
+            MemoryWatcher.updateThreshold();
+            assertEquals(pool.getUsage().getMax() / 100L * 90, pool.getCollectionUsageThreshold());
+        } finally {
+            pool.setCollectionUsageThreshold(0L);
+            BetterTextFieldConfig.heapTrimThresholdPercent = percent;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.textfield.bettertextfield;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 剪贴板在之后的 tick 才读好时，粘贴与其间按键的先后顺序。
+ * 期望的结果都是先粘贴、再执行其间的按键。
+ */
+public class PasteAnchorTest {
+    private static PatchedTextField field(String text) {
+        PatchedTextField field = new PatchedTextField(0, TestFonts.fixedWidth(6), 0, 0, 200, 20);
+        field.setText(text);
+        field.setCanLoseFocus(false);
+        field.setFocused(true);
+        return field;
+    }
+
+    private static void assertField(String text, int cursor, int selection, PatchedTextField field) {
+        assertEquals(text, field.getText());
+        assertEquals(cursor, field.getCursorPosition(), "cursor");
+        assertEquals(selection, field.getSelectionEnd(), "selection end");
+    }
+
+    @Test
+    public void pastesImmediatelyLikeWriteText() {
+        PatchedTextField field = field("abcd");
+        field.setCursorPosition(1);
+        field.setSelectionPos(3);
+        TextFieldLogic.paste(field, TextFieldLogic.beginPaste(field), "XY");
+        assertField("aXYd", 3, 3, field);
+    }
+
+    @Test
+    public void typedTextFollowsThePaste() {
+        PatchedTextField field = field("ab");
+        PasteAnchor anchor = TextFieldLogic.beginPaste(field);
+        field.writeText("c");
+        field.writeText("d");
+        TextFieldLogic.paste(field, anchor, "XY");
+        assertField("abXYcd", 6, 6, field);
+    }
+
+    @Test
+    public void typedTextReplacingTheSelectionFollowsThePaste() {
+        PatchedTextField field = field("abcd");
+        field.setCursorPosition(3);
+        field.setSelectionPos(1);
+        PasteAnchor anchor = TextFieldLogic.beginPaste(field);
+        // 原版中输入的文字替换了仍然存在的选区
+        field.writeText("z");
+        TextFieldLogic.paste(field, anchor, "XY");
+        assertField("aXYzd", 4, 4, field);
+    }
+
+    @Test
+    public void cursorMovedBeforeThePasteStays() {
+        PatchedTextField field = field("abc");
+        PasteAnchor anchor = TextFieldLogic.beginPaste(field);
+        field.setCursorPosition(0);
+        field.writeText("z");
+        TextFieldLogic.paste(field, anchor, "XY");
+        assertField("zabcXY", 1, 1, field);
+    }
+
+    @Test
+    public void backspaceBeforeThePasteRemovesEarlierText() {
+        PatchedTextField field = field("abc");
+        PasteAnchor anchor = TextFieldLogic.beginPaste(field);
+        field.deleteFromCursor(-1);
+        TextFieldLogic.paste(field, anchor, "XY");
+        assertField("abXY", 4, 4, field);
+    }
+
+    @Test
+    public void selectionMadeAfterCtrlVMovesWithThePaste() {
+        PatchedTextField field = field("abcd");
+        field.setCursorPosition(2);
+        PasteAnchor anchor = TextFieldLogic.beginPaste(field);
+        field.setSelectionPos(4);
+        TextFieldLogic.paste(field, anchor, "XY");
+        assertField("abXYcd", 4, 6, field);
+    }
+
+    @Test
+    public void pastesKeepTheOrderOfCtrlV() {
+        PatchedTextField field = field("ab");
+        PasteAnchor first = TextFieldLogic.beginPaste(field);
+        PasteAnchor second = TextFieldLogic.beginPaste(field);
+        TextFieldLogic.paste(field, first, "1");
+        TextFieldLogic.paste(field, second, "2");
+        assertField("ab12", 4, 4, field);
+    }
+
+    /**
+     * 预读的内容可能在更早的读取送达客户端线程之前就已读好。
+     */
+    @Test
+    public void laterPasteReadFirstStillFollows() {
+        PatchedTextField field = field("ab");
+        PasteAnchor first = TextFieldLogic.beginPaste(field);
+        PasteAnchor second = TextFieldLogic.beginPaste(field);
+        TextFieldLogic.paste(field, second, "2");
+        TextFieldLogic.paste(field, first, "1");
+        assertField("ab12", 4, 4, field);
+    }
+
+    @Test
+    public void setTextDropsPendingPastes() {
+        PatchedTextField field = field("ab");
+        PasteAnchor anchor = TextFieldLogic.beginPaste(field);
+        field.setText("new");
+        TextFieldLogic.paste(field, anchor, "XY");
+        assertField("new", 3, 3, field);
+    }
+
+    @Test
+    public void unfocusedFieldIgnoresThePaste() {
+        PatchedTextField field = field("ab");
+        PasteAnchor anchor = TextFieldLogic.beginPaste(field);
+        field.setFocused(false);
+        TextFieldLogic.paste(field, anchor, "XY");
+        assertField("ab", 2, 2, field);
+    }
+
+    @Test
+    public void rejectedPasteKeepsTheCursor() {
+        PatchedTextField field = field("ab");
+        field.setValidator(s -> !s.contains("X"));
+        PasteAnchor anchor = TextFieldLogic.beginPaste(field);
+        field.setCursorPosition(1);
+        TextFieldLogic.paste(field, anchor, "XY");
+        assertField("ab", 1, 1, field);
+    }
+
+    @Test
+    public void undoRemovesOnlyThePaste() {
+        PatchedTextField field = field("ab");
+        PasteAnchor anchor = TextFieldLogic.beginPaste(field);
+        field.setCursorPosition(0);
+        field.writeText("z");
+        TextFieldLogic.paste(field, anchor, "XY");
+        TextFieldLogic.undo(field);
+        assertEquals("zab", field.getText());
+    }
+}
@@ -0,0 +1,406 @@
+package com.textfield.bettertextfield;
+
+import com.google.common.base.Predicate;
+import net.minecraft.client.gui.FontRenderer;
+import net.minecraft.client.gui.GuiPageButtonList;
+import net.minecraft.client.gui.GuiTextField;
+
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+
+/**
+ * 在 GuiTextFieldMixin 的注入点调用 {@link TextFieldLogic} 的 GuiTextField，测试与基准测试由此运行 mixin 实际执行的代码。
+ * 测试时没有应用 mixin，原版的私有字段经由 MethodHandle 读写。
+ * <p>
+ * 被包装的方法直接交给 TextFieldLogic；其余重写的方法与原版相同，只是 mixin 修改的字段访问换成了对应的调用。
+ * 剪贴板、拖选与 responder 防抖需要游戏实例，不在这里模拟。
+ */
+class PatchedTextField extends GuiTextField implements TextFieldLogic.Target {
+    private static final MethodHandle GET_TEXT = getter("text");
+    private static final MethodHandle SET_TEXT = setter("text");
+    private static final MethodHandle GET_CURSOR = getter("cursorPosition");
+    private static final MethodHandle SET_CURSOR = setter("cursorPosition");
+    private static final MethodHandle GET_SELECTION = getter("selectionEnd");
+    private static final MethodHandle SET_SELECTION = setter("selectionEnd");
+    private static final MethodHandle GET_SCROLL = getter("lineScrollOffset");
+    private static final MethodHandle SET_SCROLL = setter("lineScrollOffset");
+    private static final MethodHandle SET_MAX_LENGTH = setter("maxStringLength");
+    private static final MethodHandle GET_VALIDATOR = getter("validator");
+    private static final MethodHandle GET_FONT_RENDERER = getter("fontRenderer");
+    private static final MethodHandle GET_ENABLED = getter("isEnabled");
+    private static final MethodHandle GET_CAN_LOSE_FOCUS = getter("canLoseFocus");
+    private static final MethodHandle SET_FOCUSED = setter("isFocused");
+    private static final MethodHandle GET_RESPONDER = getter("guiResponder");
+
+    @Nullable
+    private TextFieldData data;
+    private int version;
+
+    PatchedTextField(int id, FontRenderer fontRenderer, int x, int y, int width, int height) {
+        super(id, fontRenderer, x, y, width, height);
+    }
+
+    private static Field field(String name) throws NoSuchFieldException {
+        Field field = GuiTextField.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+
+    private static MethodHandle getter(String name) {
+        try {
+            return MethodHandles.lookup().unreflectGetter(field(name));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle setter(String name) {
+        try {
+            return MethodHandles.lookup().unreflectSetter(field(name));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * mixin 在原版方法体读取 text 的地方调用 {@link TextFieldLogic#readText}，调用原版方法前先读一次。
+     */
+    private void syncText() {
+        TextFieldLogic.readText(this);
+    }
+
+    /*
+    @WrapMethod 接管的方法
+     */
+
+    @Override
+    public void writeText(String textToWrite) {
+        TextFieldLogic.writeText(this, textToWrite);
+    }
+
+    @Override
+    public void deleteFromCursor(int num) {
+        TextFieldLogic.deleteFromCursor(this, num);
+    }
+
+    @Override
+    public void setCursorPosition(int pos) {
+        TextFieldLogic.setCursorPosition(this, pos);
+    }
+
+    @Override
+    public void setSelectionPos(int position) {
+        if (!TextFieldLogic.setSelectionPos(this, position)) {
+            this.syncText();
+            super.setSelectionPos(position);
+        }
+    }
+
+    @Override
+    public int getNthWordFromPosWS(int n, int pos, boolean skipWs) {
+        int result = TextFieldLogic.getNthWordFromPosWS(this, n, pos, skipWs);
+        if (result >= 0) return result;
+        this.syncText();
+        return super.getNthWordFromPosWS(n, pos, skipWs);
+    }
+
+    @Override
+    public void setCursorPositionEnd() {
+        TextFieldLogic.setCursorPositionEnd(this);
+    }
+
+    @Override
+    public boolean mouseClicked(int mouseX, int mouseY, int mouseButton) {
+        if (this.betterTextField$getFontRenderer() == null) {
+            this.syncText();
+            return super.mouseClicked(mouseX, mouseY, mouseButton);
+        }
+        return TextFieldLogic.mouseClicked(this, mouseX, mouseY, mouseButton);
+    }
+
+    @Override
+    public void setText(String textIn) {
+        int previousVersion = TextFieldLogic.beforeExternalChange(this);
+        if (this.betterTextField$getValidator().apply(textIn)) {
+            int maxStringLength = this.getMaxStringLength();
+            this.assignText(textIn.length() > maxStringLength ? textIn.substring(0, maxStringLength) : textIn);
+            this.setCursorPositionEnd();
+        }
+        TextFieldLogic.afterExternalChange(this, previousVersion);
+    }
+
+    @Override
+    public void setMaxStringLength(int length) {
+        int previousVersion = TextFieldLogic.beforeExternalChange(this);
+        try {
+            SET_MAX_LENGTH.invokeExact((GuiTextField) this, length);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+        String text = TextFieldLogic.readText(this);
+        if (text.length() > length) {
+            this.assignText(text.substring(0, length));
+        }
+        TextFieldLogic.afterExternalChange(this, previousVersion);
+    }
+
+    /**
+     * 与 mixin 包装的字段写入相同，先写入再同步。
+     */
+    private void assignText(String value) {
+        String previous = this.betterTextField$getTextField();
+        this.betterTextField$setTextField(value);
+        TextFieldLogic.onTextAssigned(this, previous, value);
+    }
+
+    /*
+    修改了字段访问的方法
+     */
+
+    @Override
+    public String getText() {
+        return TextFieldLogic.readText(this);
+    }
+
+    @Override
+    public String getSelectedText() {
+        int cursor = this.getCursorPosition();
+        int selection = this.getSelectionEnd();
+        return TextFieldLogic.readText(this).substring(Math.min(cursor, selection), Math.max(cursor, selection));
+    }
+
+    @Override
+    public void deleteWords(int num) {
+        if (!TextFieldLogic.readText(this).isEmpty()) {
+            if (this.getSelectionEnd() != this.getCursorPosition()) {
+                this.writeText("");
+            } else {
+                this.deleteFromCursor(this.getNthWordFromCursor(num) - this.getCursorPosition());
+            }
+        }
+    }
+
+    @Override
+    public int getCursorPosition() {
+        TextFieldLogic.flushPending(this);
+        return this.betterTextField$getCursorField();
+    }
+
+    @Override
+    public int getSelectionEnd() {
+        TextFieldLogic.flushPending(this);
+        return this.betterTextField$getSelectionField();
+    }
+
+    @Override
+    public void moveCursorBy(int num) {
+        this.setCursorPosition(this.getSelectionEnd() + num);
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        TextFieldLogic.flushPending(this);
+        super.setEnabled(enabled);
+    }
+
+    @Override
+    public void setValidator(Predicate<String> theValidator) {
+        TextFieldLogic.flushPending(this);
+        super.setValidator(theValidator);
+    }
+
+    /**
+     * 原版还会通知 Minecraft.currentScreen，测试时没有游戏实例。
+     */
+    @Override
+    public void setFocused(boolean isFocusedIn) {
+        try {
+            SET_FOCUSED.invokeExact((GuiTextField) this, isFocusedIn);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+        TextFieldLogic.onFocusChanged(this, isFocusedIn);
+    }
+
+    @Override
+    public void drawTextBox() {
+        if (TextFieldLogic.onDrawTextBox(this, this.getVisible())) {
+            this.syncText();
+            super.drawTextBox();
+        }
+    }
+
+    /*
+    TextFieldLogic.Target
+     */
+
+    @Override
+    public String betterTextField$getTextField() {
+        try {
+            return (String) GET_TEXT.invokeExact((GuiTextField) this);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public void betterTextField$setTextField(String text) {
+        try {
+            SET_TEXT.invokeExact((GuiTextField) this, text);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public int betterTextField$getCursorField() {
+        try {
+            return (int) GET_CURSOR.invokeExact((GuiTextField) this);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public void betterTextField$setCursorField(int cursorPosition) {
+        try {
+            SET_CURSOR.invokeExact((GuiTextField) this, cursorPosition);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public int betterTextField$getSelectionField() {
+        try {
+            return (int) GET_SELECTION.invokeExact((GuiTextField) this);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public void betterTextField$setSelectionField(int selectionEnd) {
+        try {
+            SET_SELECTION.invokeExact((GuiTextField) this, selectionEnd);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public int betterTextField$getScrollField() {
+        try {
+            return (int) GET_SCROLL.invokeExact((GuiTextField) this);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public void betterTextField$setScrollField(int lineScrollOffset) {
+        try {
+            SET_SCROLL.invokeExact((GuiTextField) this, lineScrollOffset);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Predicate<String> betterTextField$getValidator() {
+        try {
+            return (Predicate<String>) GET_VALIDATOR.invokeExact((GuiTextField) this);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    @Nullable
+    public FontRenderer betterTextField$getFontRenderer() {
+        try {
+            return (FontRenderer) GET_FONT_RENDERER.invokeExact((GuiTextField) this);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public boolean betterTextField$isEnabled() {
+        try {
+            return (boolean) GET_ENABLED.invokeExact((GuiTextField) this);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public boolean betterTextField$canLoseFocus() {
+        try {
+            return (boolean) GET_CAN_LOSE_FOCUS.invokeExact((GuiTextField) this);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    @Nullable
+    public TextFieldData betterTextField$peekData() {
+        return this.data;
+    }
+
+    @Override
+    public TextFieldData betterTextField$getData() {
+        if (this.data == null) {
+            this.data = new TextFieldData();
+        }
+        return this.data;
+    }
+
+    @Override
+    public int betterTextField$getVersion() {
+        return this.version;
+    }
+
+    @Override
+    public void betterTextField$setVersion(int version) {
+        this.version = version;
+    }
+
+    /**
+     * 与 mixin 相同，没有 responder 时不生成字符串。测试时不防抖。
+     */
+    @Override
+    public void betterTextField$notifyResponder() {
+        GuiPageButtonList.GuiResponder responder;
+        try {
+            responder = (GuiPageButtonList.GuiResponder) GET_RESPONDER.invokeExact((GuiTextField) this);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+        if (responder != null) {
+            this.setResponderEntryValue(this.getId(), TextFieldLogic.getText(this));
+        }
+    }
+
+    @Override
+    public void betterTextField$autoScroll(TextFieldData data) {
+        throw new UnsupportedOperationException("dragging needs the game");
+    }
+
+    /**
+     * 绘制需要 GL，这里只更新 {@link TextLayout}；宽度无法由前缀和计算时与 mixin 相同，交给原版绘制。
+     */
+    @Override
+    public boolean betterTextField$drawCached() {
+        return !this.getVisible() || TextFieldLogic.updateLayout(this) != null;
+    }
+
+    @Override
+    public void betterTextField$flushPending() {
+        TextFieldLogic.flushPending(this);
+    }
+}
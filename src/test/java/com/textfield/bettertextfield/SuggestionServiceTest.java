@@ -0,0 +1,50 @@
+package com.textfield.bettertextfield;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SuggestionServiceTest {
+    @Test
+    public void discardedRequestIsReported() {
+        CountDownLatch release = new CountDownLatch(1);
+        SuggestionProvider blocking = request -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.emptyList();
+        };
+        List<SuggestionRequest> requests = new ArrayList<>();
+        List<Runnable> tasks = new ArrayList<>();
+        List<SuggestionRequest> discarded = new ArrayList<>();
+        try {
+            // 两个线程各执行一个请求，队列中再放满 8 个，第 11 个挤掉队列中最旧的第 2 个
+            for (int i = 0; i < 11; i++) {
+                SuggestionRequest request = new SuggestionRequest("field " + i, 0, 0);
+                requests.add(request);
+                tasks.add(SuggestionService.submit(blocking, request, (r, s) -> {
+                }, discarded::add));
+            }
+            assertEquals(1, discarded.size());
+            assertSame(requests.get(1), discarded.get(0));
+            assertTrue(requests.get(1).isCancelled());
+            assertFalse(requests.get(2).isCancelled());
+        } finally {
+            // 取消后不会回调，也就不会访问 Minecraft
+            for (int i = 0; i < requests.size(); i++) {
+                SuggestionService.cancel(requests.get(i), tasks.get(i));
+            }
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.gui.FontRenderer;
+import net.minecraft.client.renderer.texture.TextureManager;
+import net.minecraft.client.settings.GameSettings;
+import net.minecraft.util.ResourceLocation;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+/**
+ * 不加载纹理的 {@link FontRenderer}，宽度由原版的 getCharWidth 根据给定的宽度表计算。
+ * 宽度表之外、没有 unicode 字形的字符（如 U+0300）宽度为 0，§ 为 -1，空格为 4。
+ */
+final class TestFonts {
+    private TestFonts() {
+    }
+
+    /**
+     * 宽度表中的字符宽度都为 width。
+     */
+    static FontRenderer fixedWidth(int width) {
+        int[] charWidth = new int[256];
+        Arrays.fill(charWidth, width);
+        return create(charWidth, FontRenderer.class);
+    }
+
+    /**
+     * 与 {@link #fixedWidth} 相同，但绘制时只返回文字末端的位置，不调用 GL，原版 drawTextBox 可以在测试中运行。
+     * 它不是 FontRenderer 本身，{@link WidthIndex} 不接受，使用它的文本框由原版绘制。
+     */
+    static FontRenderer withoutDrawing(int width) {
+        int[] charWidth = new int[256];
+        Arrays.fill(charWidth, width);
+        return create(charWidth, WithoutDrawing.class);
+    }
+
+    /**
+     * 宽度表中第 i 个字符的宽度为 {@code i % 5 + 2}，宽度各不相同。
+     */
+    static FontRenderer mixedWidth() {
+        int[] charWidth = new int[256];
+        for (int i = 0; i < charWidth.length; i++) {
+            charWidth[i] = i % 5 + 2;
+        }
+        return create(charWidth, FontRenderer.class);
+    }
+
+    private static FontRenderer create(int[] charWidth, Class<? extends FontRenderer> type) {
+        try {
+            // 跳过需要资源管理器的构造器，编译时 --release 8 不开放 sun.misc，只能反射取得
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Object unsafe = theUnsafe.get(null);
+            // WidthIndex 只接受 FontRenderer 本身，fixedWidth 与 mixedWidth 不能用子类
+            FontRenderer fontRenderer = (FontRenderer) unsafeClass.getMethod("allocateInstance", Class.class)
+                    .invoke(unsafe, type);
+            set(fontRenderer, "charWidth", charWidth);
+            set(fontRenderer, "glyphWidth", new byte[65536]);
+            set(fontRenderer, "FONT_HEIGHT", 9);
+            return fontRenderer;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void set(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = FontRenderer.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static final class WithoutDrawing extends FontRenderer {
+        /// 由 Unsafe 分配，从不调用
+        private WithoutDrawing(GameSettings gameSettings, ResourceLocation location, TextureManager textureManager, boolean unicode) {
+            super(gameSettings, location, textureManager, unicode);
+        }
+
+        @Override
+        public int drawStringWithShadow(String text, float x, float y, int color) {
+            return (int) x + this.getStringWidth(text);
+        }
+    }
+}
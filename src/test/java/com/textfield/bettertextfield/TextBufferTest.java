@@ -0,0 +1,34 @@
+package com.textfield.bettertextfield;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TextBufferTest {
+    @Test
+    public void contentEqualsAroundTheGap() {
+        TextBuffer buffer = new TextBuffer("hello world");
+        buffer.insert(5, ",");
+        buffer.delete(0, 1);
+        // 编辑后没有读取过字符串，在缓冲区上比较
+        assertTrue(buffer.contentEquals("ello, world"));
+        assertFalse(buffer.contentEquals("ello, worle"));
+        assertFalse(buffer.contentEquals("Ello, world"));
+        assertFalse(buffer.contentEquals("ello,"));
+        assertEquals("ello, world", buffer.toString());
+        assertTrue(buffer.contentEquals("ello, world"));
+    }
+
+    @Test
+    public void contentEqualsAfterSet() {
+        TextBuffer buffer = new TextBuffer("");
+        assertTrue(buffer.contentEquals(""));
+        buffer.set("abc");
+        assertTrue(buffer.contentEquals("abc"));
+        buffer.delete(1, 3);
+        assertTrue(buffer.contentEquals("a"));
+        assertFalse(buffer.contentEquals("abc"));
+    }
+}
@@ -0,0 +1,134 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.gui.FontRenderer;
+import net.minecraft.client.gui.GuiTextField;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 对照原版的 trimStringToWidth 与 setSelectionPos，测试时 {@link GuiTextField} 没有应用 mixin。
+ */
+public class WidthIndexTest {
+    private static final String ZERO_WIDTH = "\u0300";
+    /// 宽度表中的字符、空格（4）与零宽字符
+    private static final String ALPHABET = "ab ." + ZERO_WIDTH;
+
+    private static WidthIndex index(FontRenderer fontRenderer, String text) {
+        WidthIndex index = new WidthIndex(fontRenderer);
+        assertTrue(index.update(text));
+        return index;
+    }
+
+    private static int vanillaTrimEnd(FontRenderer fontRenderer, String text, int start, int maxWidth) {
+        return fontRenderer.trimStringToWidth(text.substring(start), maxWidth).length() + start;
+    }
+
+    private static int vanillaTrimStart(FontRenderer fontRenderer, String text, int end, int maxWidth) {
+        return end - fontRenderer.trimStringToWidth(text.substring(0, end), maxWidth, true).length();
+    }
+
+    @Test
+    public void zeroWidthGlyphAtLimit() {
+        FontRenderer fontRenderer = TestFonts.fixedWidth(6);
+        // 累计宽度恰好达到 12 后，原版不再追加零宽字符
+        String text = "ab" + ZERO_WIDTH + "c";
+        WidthIndex index = index(fontRenderer, text);
+        assertEquals(2, vanillaTrimEnd(fontRenderer, text, 0, 12));
+        assertEquals(2, index.trimEnd(0, 12));
+        // 未达到宽度时零宽字符照常追加
+        assertEquals(3, vanillaTrimEnd(fontRenderer, text, 0, 13));
+        assertEquals(3, index.trimEnd(0, 13));
+    }
+
+    @Test
+    public void zeroWidthGlyphAtLimitReversed() {
+        FontRenderer fontRenderer = TestFonts.fixedWidth(6);
+        String text = "a" + ZERO_WIDTH + "bc";
+        WidthIndex index = index(fontRenderer, text);
+        assertEquals(2, vanillaTrimStart(fontRenderer, text, text.length(), 12));
+        assertEquals(2, index.trimStart(text.length(), 12));
+        assertEquals(1, vanillaTrimStart(fontRenderer, text, text.length(), 13));
+        assertEquals(1, index.trimStart(text.length(), 13));
+    }
+
+    @Test
+    public void nonPositiveWidth() {
+        FontRenderer fontRenderer = TestFonts.fixedWidth(6);
+        String text = ZERO_WIDTH + "ab";
+        WidthIndex index = index(fontRenderer, text);
+        for (int width = -8; width <= 0; width++) {
+            for (int i = 0; i <= text.length(); i++) {
+                assertEquals(vanillaTrimEnd(fontRenderer, text, i, width), index.trimEnd(i, width));
+                assertEquals(vanillaTrimStart(fontRenderer, text, i, width), index.trimStart(i, width));
+            }
+        }
+    }
+
+    @Test
+    public void formattingCodesFallBack() {
+        WidthIndex index = new WidthIndex(TestFonts.fixedWidth(6));
+        assertFalse(index.update("a§cb"));
+    }
+
+    @Test
+    public void trimMatchesVanilla() {
+        Random random = new Random(7L);
+        FontRenderer[] fonts = {TestFonts.fixedWidth(6), TestFonts.mixedWidth()};
+        for (int round = 0; round < 2000; round++) {
+            FontRenderer fontRenderer = fonts[round % fonts.length];
+            String text = randomText(random, 40);
+            WidthIndex index = index(fontRenderer, text);
+            for (int i = 0; i < 10; i++) {
+                int position = random.nextInt(text.length() + 1);
+                int width = random.nextInt(80) - 8;
+                assertEquals(vanillaTrimEnd(fontRenderer, text, position, width), index.trimEnd(position, width),
+                        () -> "trimEnd '" + text + "' from " + position + " to " + width);
+                assertEquals(vanillaTrimStart(fontRenderer, text, position, width), index.trimStart(position, width),
+                        () -> "trimStart '" + text + "' to " + position + " within " + width);
+            }
+        }
+    }
+
+    @Test
+    public void scrollMatchesVanillaSetSelectionPos() throws ReflectiveOperationException {
+        Field lineScrollOffset = GuiTextField.class.getDeclaredField("lineScrollOffset");
+        lineScrollOffset.setAccessible(true);
+        Random random = new Random(11L);
+        FontRenderer[] fonts = {TestFonts.fixedWidth(6), TestFonts.mixedWidth()};
+        for (int round = 0; round < 5000; round++) {
+            FontRenderer fontRenderer = fonts[round % fonts.length];
+            String text = randomText(random, 60);
+            // 宽度不超过 8 且绘制背景时可见宽度为 0 或负数
+            GuiTextField field = new GuiTextField(0, fontRenderer, 0, 0, random.nextInt(100), 20);
+            field.setEnableBackgroundDrawing(random.nextBoolean());
+            field.setMaxStringLength(100);
+            field.setText(text);
+            WidthIndex index = index(fontRenderer, text);
+            for (int i = 0; i < 10; i++) {
+                int offset = random.nextInt(text.length() + 2);
+                int position = random.nextInt(text.length() + 1);
+                lineScrollOffset.setInt(field, offset);
+                field.setSelectionPos(position);
+                int expected = lineScrollOffset.getInt(field);
+                int actual = index.scrollTo(offset, position, field.getWidth());
+                assertEquals(expected, actual,
+                        () -> "'" + text + "' scrolled from " + offset + " to " + position + " within " + field.getWidth());
+            }
+        }
+    }
+
+    private static String randomText(Random random, int maxLength) {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.textfield.bettertextfield;
+
+import net.minecraft.client.gui.GuiTextField;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 对照原版的 getNthWordFromPosWS，测试时 {@link GuiTextField} 没有应用 mixin。
+ */
+public class WordIndexTest {
+    private static GuiTextField vanilla(String text) {
+        GuiTextField field = new GuiTextField(0, null, 0, 0, 100, 20);
+        field.setMaxStringLength(Integer.MAX_VALUE);
+        field.setText(text);
+        return field;
+    }
+
+    private static void assertMatches(WordIndex index, TextBuffer buffer, Random random) {
+        String text = buffer.toString();
+        GuiTextField field = vanilla(text);
+        for (int i = 0; i < 16; i++) {
+            int n = random.nextInt(7) - 3;
+            int pos = random.nextInt(text.length() + 1);
+            boolean skipWs = random.nextBoolean();
+            assertEquals(field.getNthWordFromPosWS(n, pos, skipWs), index.getNthWordFromPos(n, pos, skipWs),
+                    () -> "getNthWordFromPosWS(" + n + ", " + pos + ", " + skipWs + ") on '" + text + "'");
+        }
+    }
+
+    @Test
+    public void matchesVanillaOnFreshText() {
+        Random random = new Random(3L);
+        for (int round = 0; round < 2000; round++) {
+            TextBuffer buffer = new TextBuffer(randomText(random, 30));
+            assertMatches(new WordIndex(buffer), buffer, random);
+        }
+    }
+
+    @Test
+    public void matchesVanillaAfterIncrementalEdits() {
+        Random random = new Random(13L);
+        for (int round = 0; round < 300; round++) {
+            TextBuffer buffer = new TextBuffer(randomText(random, 30));
+            WordIndex index = new WordIndex(buffer);
+            buffer.addListener(index);
+            // 先建立索引，之后的编辑走增量更新
+            assertMatches(index, buffer, random);
+            for (int step = 0; step < 40; step++) {
+                int start = random.nextInt(buffer.length() + 1);
+                int end = start + random.nextInt(Math.min(buffer.length() - start, 6) + 1);
+                if (random.nextInt(10) == 0) {
+                    buffer.set(randomText(random, 30));
+                } else {
+                    buffer.replace(start, end, randomText(random, 4));
+                }
+                assertMatches(index, buffer, random);
+            }
+        }
+    }
+
+    /**
+     * 空格多，连续空格段经常被拆分与合并。
+     */
+    private static String randomText(Random random, int maxLength) {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            builder.append(random.nextInt(3) == 0 ? 'a' : ' ');
+        }
+        return builder.toString();
+    }
+}